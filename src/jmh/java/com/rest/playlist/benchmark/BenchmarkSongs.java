@@ -0,0 +1,47 @@
+package com.rest.playlist.benchmark;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * songs used as benchmark input, built the same way as in the integration tests
+ */
+final class BenchmarkSongs {
+
+    private BenchmarkSongs() {
+    }
+
+    static Song newSong(int index) {
+        Melody melody = new Melody();
+        melody.setPitch("Melody Pitch " + index);
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.values()[index % MelodyType.values().length]);
+
+        Song song = new Song();
+        song.setTitle("Benchmark song " + index);
+        song.setDescription("Live At Abbey Road Studios");
+        song.setCategory(SongCategory.values()[index % SongCategory.values().length]);
+        song.setArtistName("Artist " + (index % 100));
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+        return song;
+    }
+
+    static List<Song> newSongs(int count) {
+        List<Song> songs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Song song = newSong(i);
+            song.setId((long) i + 1);
+            song.getMelody().setId((long) i + 1);
+            song.setVersion(0L);
+            song.getMelody().setVersion(0L);
+            songs.add(song);
+        }
+        return songs;
+    }
+}
@@ -0,0 +1,37 @@
+package com.rest.playlist.benchmark;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import org.apache.commons.lang3.EnumUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * path variable parsing of the category and melody type finders, for exact, lower case and unknown values
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumParsingBenchmark {
+
+    @Param({"CLASSICAL", "classical", "ROCK"})
+    private String category;
+
+    @Param({"DIRECTION", "direction", "NOISE"})
+    private String type;
+
+    @Benchmark
+    public SongCategory parseCategory() {
+        return EnumUtils.getEnumIgnoreCase(SongCategory.class, category);
+    }
+
+    @Benchmark
+    public MelodyType parseMelodyType() {
+        return EnumUtils.getEnumIgnoreCase(MelodyType.class, type);
+    }
+}
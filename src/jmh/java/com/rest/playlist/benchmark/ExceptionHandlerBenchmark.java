@@ -0,0 +1,54 @@
+package com.rest.playlist.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.web.exception.FormatNotValidException;
+import com.rest.playlist.web.exception.ResourceNotFoundException;
+import com.rest.playlist.web.exception.ServiceExceptionHandler;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * error rendering by ServiceExceptionHandler : building the ErrorMessage and writing it as JSON.
+ * The exceptions are created in the benchmark since their stack trace is part of the cost of a failed lookup.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+    private ServiceExceptionHandler handler;
+    private ObjectMapper objectMapper;
+    private WebRequest request;
+
+    @Setup
+    public void setup() {
+        handler = new ServiceExceptionHandler();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/songs/4000"));
+    }
+
+    @Benchmark
+    public byte[] renderResourceNotFound() throws JsonProcessingException {
+        ResponseEntity<?> response = handler.handleResourceNotFoundException(
+                new ResourceNotFoundException("Not found song with id = 4000"), request);
+        return objectMapper.writeValueAsBytes(response.getBody());
+    }
+
+    @Benchmark
+    public byte[] renderFormatNotValid() throws JsonProcessingException {
+        ResponseEntity<?> response = handler.handleFormatNotValidException(
+                new FormatNotValidException("Melody : pitch ne doit pas être null ou vide"), request);
+        return objectMapper.writeValueAsBytes(response.getBody());
+    }
+}
@@ -0,0 +1,54 @@
+package com.rest.playlist.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.rest.playlist.dto.SongResponse;
+import com.rest.playlist.mapper.SongMapper;
+import com.rest.playlist.model.Song;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * cost of the entity to DTO mapping done by the resources, alone and followed by the Jackson rendering,
+ * to be compared with serializeSongs of SongSerializationBenchmark which renders the entities directly.
+ * Run with -prof gc to read the bytes allocated per song.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SongMappingBenchmark {
+
+    @Param({"1", "20", "100", "1000"})
+    private int songCount;
+
+    private SongMapper songMapper;
+    private ObjectWriter writer;
+    private List<Song> songs;
+
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        songMapper = Mappers.getMapper(SongMapper.class);
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, SongResponse.class));
+        songs = BenchmarkSongs.newSongs(songCount);
+    }
+
+    @Benchmark
+    public List<SongResponse> mapSongs() {
+        return songMapper.toResponses(songs);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeSongs() throws JsonProcessingException {
+        return writer.writeValueAsBytes(songMapper.toResponses(songs));
+    }
+}
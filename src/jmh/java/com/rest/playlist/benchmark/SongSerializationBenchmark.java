@@ -0,0 +1,53 @@
+package com.rest.playlist.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.rest.playlist.model.Song;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson rendering of the song lists returned by the list endpoints, with the ObjectMapper settings Spring Boot uses
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SongSerializationBenchmark {
+
+    @Param({"1", "20", "100", "1000"})
+    private int songCount;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<Song> songs;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        songs = BenchmarkSongs.newSongs(songCount);
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Song.class));
+        reader = objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Song.class));
+        json = writer.writeValueAsBytes(songs);
+    }
+
+    @Benchmark
+    public byte[] serializeSongs() throws JsonProcessingException {
+        return writer.writeValueAsBytes(songs);
+    }
+
+    @Benchmark
+    public List<Song> deserializeSongs() throws IOException {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,147 @@
+package com.rest.playlist.benchmark;
+
+import com.rest.playlist.PlaylistApplication;
+import com.rest.playlist.dto.BatchResult;
+import com.rest.playlist.dto.CursorPage;
+import com.rest.playlist.dto.SongPatch;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.service.ISongBatchService;
+import com.rest.playlist.service.ISongService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SongServiceImpl reads and writes with the caches configured as in production, against an in-memory H2
+ * or a PostgreSQL container (database=postgres, needs Docker) whose schema comes from the Flyway migrations.
+ * getSongById is mostly served by the song cache, getSongsPage and getSongsByArtistName always reach the database.
+ * allocationSize compares the id generation of createSong and createSongsBatch : 50 is the pooled-lo mapping
+ * of the entities, 1 overrides it with META-INF/orm-allocation-size-1.xml (one nextval per insert).
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SongServiceBenchmark {
+
+    private static final String ALLOCATION_SIZE_1_MAPPING = "META-INF/orm-allocation-size-1.xml";
+
+    @Param({"1000"})
+    private int catalogSize;
+
+    @Param({"50", "1"})
+    private int allocationSize;
+
+    @Param({"h2", "postgres"})
+    private String database;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private ISongService songService;
+    private ISongBatchService songBatchService;
+    private final List<Long> songIds = new ArrayList<>();
+    private int created;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(PlaylistApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("jmh");
+        if (allocationSize == 1) {
+            application.properties("spring.jpa.mapping-resources=" + ALLOCATION_SIZE_1_MAPPING);
+        } else if (allocationSize != 50) {
+            throw new IllegalArgumentException("allocationSize : 1 or 50 expected = " + allocationSize);
+        }
+        if ("postgres".equals(database)) {
+            postgres = new PostgreSQLContainer<>("postgres:13-alpine");
+            postgres.start();
+            application.properties(
+                    "spring.datasource.url=" + postgres.getJdbcUrl(),
+                    "spring.datasource.username=" + postgres.getUsername(),
+                    "spring.datasource.password=" + postgres.getPassword(),
+                    "spring.datasource.driverClassName=org.postgresql.Driver",
+                    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                    "spring.jpa.hibernate.ddl-auto=validate",
+                    "spring.flyway.enabled=true",
+                    "playlist.search.engine=postgres");
+        } else if (!"h2".equals(database)) {
+            throw new IllegalArgumentException("database : h2 or postgres expected = " + database);
+        }
+        context = application.run();
+        songService = context.getBean(ISongService.class);
+        songBatchService = context.getBean(ISongBatchService.class);
+
+        List<Song> songs = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            songs.add(BenchmarkSongs.newSong(i));
+        }
+        songBatchService.createSongs(songs.iterator());
+        for (Song song : songService.getAllSongs()) {
+            songIds.add(song.getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    private Long randomId() {
+        return songIds.get(ThreadLocalRandom.current().nextInt(songIds.size()));
+    }
+
+    @Benchmark
+    public Song getSongById() {
+        return songService.getSongById(randomId());
+    }
+
+    @Benchmark
+    public List<Song> getSongsByCategory() {
+        return songService.getSongsByCategory("POP");
+    }
+
+    @Benchmark
+    public List<Song> getSongsByArtistName() {
+        return songService.getSongsByArtistName("Artist " + ThreadLocalRandom.current().nextInt(100));
+    }
+
+    @Benchmark
+    public CursorPage<Song> getSongsPage() {
+        return songService.getSongsPage(randomId(), 20);
+    }
+
+    @Benchmark
+    public Song createSong() {
+        return songService.createSong(BenchmarkSongs.newSong(catalogSize + created++));
+    }
+
+    @Benchmark
+    public void patchSong() {
+        SongPatch patch = new SongPatch();
+        patch.setTitle("Patched " + ThreadLocalRandom.current().nextInt(1000));
+        songService.patchSong(randomId(), patch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public BatchResult createSongsBatch() {
+        List<Song> songs = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            songs.add(BenchmarkSongs.newSong(catalogSize + created++));
+        }
+        return songBatchService.createSongs(songs.iterator());
+    }
+}
@@ -0,0 +1,52 @@
+package com.rest.playlist.benchmark;
+
+import com.rest.playlist.dto.Suggestion;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.search.TypeaheadIndex;
+import com.rest.playlist.service.event.SongChangedEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * autocomplete lookups on a typeahead index holding the artist names and titles of catalogSize songs
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypeaheadBenchmark {
+
+    private static final String[] PREFIXES = {"a", "art", "artist 4", "bench", "benchmark song 12", "zz"};
+
+    @Param({"10000", "100000"})
+    private int catalogSize;
+
+    private TypeaheadIndex typeaheadIndex;
+
+    @Setup
+    public void setup() {
+        // the index is filled through change events, the repository is only read by rebuild()
+        SongRepository songRepository = (SongRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{SongRepository.class}, (proxy, method, args) -> Collections.emptyList());
+        typeaheadIndex = new TypeaheadIndex(songRepository, 2 * catalogSize, 100, catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            Song song = BenchmarkSongs.newSong(i);
+            song.setId((long) i + 1);
+            typeaheadIndex.onSongChanged(SongChangedEvent.saved(song));
+        }
+    }
+
+    @Benchmark
+    public List<Suggestion> suggest() {
+        return typeaheadIndex.suggest(PREFIXES[ThreadLocalRandom.current().nextInt(PREFIXES.length)], null, 10);
+    }
+}
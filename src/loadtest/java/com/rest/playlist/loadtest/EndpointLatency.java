@@ -0,0 +1,74 @@
+package com.rest.playlist.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * latency histogram (in microseconds) and error count of one endpoint of the load test
+ */
+class EndpointLatency {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final String name;
+    private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final AtomicLong errors = new AtomicLong();
+
+    EndpointLatency(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void record(long startNanos, boolean success) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        histogram.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    void reset() {
+        histogram.reset();
+        errors.set(0);
+    }
+
+    long getCount() {
+        return histogram.getTotalCount();
+    }
+
+    long getErrors() {
+        return errors.get();
+    }
+
+    double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    String summary(double seconds) {
+        return String.format("%-8s requests=%-7d errors=%-4d throughput=%8.1f req/s p50=%7.2f ms p99=%7.2f ms max=%8.2f ms",
+                name, getCount(), getErrors(), getCount() / seconds,
+                percentileMillis(50), percentileMillis(99), histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    /**
+     * writes the full percentile distribution in milliseconds, readable by the HdrHistogram plotter
+     */
+    void writeDistribution(Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        try (PrintStream out = new PrintStream(new FileOutputStream(reportDir.resolve(name + ".hgrm").toFile()))) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.rest.playlist.loadtest;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.service.ISongBatchService;
+import com.rest.playlist.service.ISongService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * drives a mixed read/write workload against the application started on a random port
+ * and checks the p50/p99 latencies of each endpoint against loadtest-baseline.properties.
+ * Catalog size, concurrency, durations and write ratio are read from the loadtest.* system properties.
+ */
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+public class SongApiLoadIT {
+    private final static Logger log = LoggerFactory.getLogger(SongApiLoadIT.class);
+
+    private static final int CATALOG_SIZE = Integer.getInteger("loadtest.catalog-size", 1000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 16);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup-seconds", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration-seconds", 30);
+    private static final int WRITE_PERCENT = Integer.getInteger("loadtest.write-percent", 10);
+    private static final int MAX_REGRESSION_PERCENT = Integer.getInteger("loadtest.max-regression-percent", 20);
+    private static final boolean RECORD_BASELINE = Boolean.getBoolean("loadtest.record-baseline");
+    private static final Path REPORT_DIR = Paths.get(System.getProperty("loadtest.report-dir", "target/loadtest"));
+    private static final int PAGE_SIZE = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ISongService songService;
+
+    @Autowired
+    private ISongBatchService songBatchService;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final List<Long> songIds = new ArrayList<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final EndpointLatency list = new EndpointLatency("list");
+    private final EndpointLatency getById = new EndpointLatency("getById");
+    private final EndpointLatency category = new EndpointLatency("category");
+    private final EndpointLatency create = new EndpointLatency("create");
+    private final EndpointLatency[] endpoints = {list, getById, category, create};
+
+    @Before
+    public void seedCatalog() {
+        List<Song> songs = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            songs.add(newSong(i));
+        }
+        songBatchService.createSongs(songs.iterator());
+        for (Song song : songService.getAllSongs()) {
+            songIds.add(song.getId());
+        }
+        log.info("catalog of {} songs, {} clients, {}% writes", songIds.size(), CONCURRENCY, WRITE_PERCENT);
+    }
+
+    @Test
+    public void testMixedWorkloadStaysWithinBaseline() throws Exception {
+        runWorkload(WARMUP_SECONDS);
+        for (EndpointLatency endpoint : endpoints) {
+            endpoint.reset();
+        }
+        runWorkload(DURATION_SECONDS);
+
+        Properties baseline = PropertiesLoaderUtils.loadProperties(new ClassPathResource("loadtest-baseline.properties"));
+        Properties measured = new Properties();
+        for (EndpointLatency endpoint : endpoints) {
+            log.info(endpoint.summary(DURATION_SECONDS));
+            endpoint.writeDistribution(REPORT_DIR);
+            measured.setProperty(endpoint.getName() + ".p50", String.valueOf((long) Math.ceil(endpoint.percentileMillis(50))));
+            measured.setProperty(endpoint.getName() + ".p99", String.valueOf((long) Math.ceil(endpoint.percentileMillis(99))));
+        }
+        if (RECORD_BASELINE) {
+            writeBaseline(measured);
+            return;
+        }
+
+        for (EndpointLatency endpoint : endpoints) {
+            assertThat(endpoint.getCount()).as("requests sent to %s", endpoint.getName()).isPositive();
+            assertThat(endpoint.getErrors()).as("failed requests on %s", endpoint.getName()).isZero();
+            assertWithinBaseline(endpoint, 50, baseline);
+            assertWithinBaseline(endpoint, 99, baseline);
+        }
+    }
+
+    private void assertWithinBaseline(EndpointLatency endpoint, int percentile, Properties baseline) {
+        String key = endpoint.getName() + ".p" + percentile;
+        double reference = Double.parseDouble(baseline.getProperty(key));
+        double limit = reference * (100 + MAX_REGRESSION_PERCENT) / 100;
+        assertThat(endpoint.percentileMillis(percentile))
+                .as("%s in ms (baseline %.0f ms + %d%%)", key, reference, MAX_REGRESSION_PERCENT)
+                .isLessThanOrEqualTo(limit);
+    }
+
+    private void runWorkload(int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<?>> runs = new ArrayList<>(CONCURRENCY);
+            for (int i = 0; i < CONCURRENCY; i++) {
+                runs.add(clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        sendRequest();
+                    }
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private void sendRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < WRITE_PERCENT) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            exchange(create, HttpMethod.POST, "/api/songs",
+                    new HttpEntity<>(newSong(CATALOG_SIZE + created.getAndIncrement()), headers));
+            return;
+        }
+        switch (random.nextInt(3)) {
+            case 0:
+                exchange(list, HttpMethod.GET, "/api/songs?size=" + PAGE_SIZE, null);
+                break;
+            case 1:
+                exchange(getById, HttpMethod.GET, "/api/songs/" + songIds.get(random.nextInt(songIds.size())), null);
+                break;
+            default:
+                SongCategory[] categories = SongCategory.values();
+                exchange(category, HttpMethod.GET, "/api/songs/category/" + categories[random.nextInt(categories.length)], null);
+        }
+    }
+
+    private void exchange(EndpointLatency endpoint, HttpMethod method, String path, HttpEntity<?> body) {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            ResponseEntity<byte[]> response = restTemplate.exchange("http://localhost:" + port + path, method, body, byte[].class);
+            success = response.getStatusCode().is2xxSuccessful();
+        } catch (RestClientResponseException e) {
+            success = false;
+        }
+        endpoint.record(start, success);
+    }
+
+    private void writeBaseline(Properties measured) throws IOException {
+        Files.createDirectories(REPORT_DIR);
+        try (OutputStream out = new FileOutputStream(REPORT_DIR.resolve("loadtest-baseline.properties").toFile())) {
+            measured.store(out, String.format("catalog-size=%d, concurrency=%d, write-percent=%d",
+                    CATALOG_SIZE, CONCURRENCY, WRITE_PERCENT));
+        }
+    }
+
+    private static Song newSong(int index) {
+        Melody melody = new Melody();
+        melody.setPitch("Melody Pitch " + index);
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.values()[index % MelodyType.values().length]);
+
+        Song song = new Song();
+        song.setTitle("Load test song " + index);
+        song.setDescription("Live At Abbey Road Studios");
+        song.setCategory(SongCategory.values()[index % SongCategory.values().length]);
+        song.setArtistName("Artist " + (index % 100));
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+        return song;
+    }
+}
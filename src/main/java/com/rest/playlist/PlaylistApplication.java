@@ -3,9 +3,12 @@ package com.rest.playlist;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
-@SpringBootApplication
+// the R2DBC connection factory of the reactive read path is created by ReactiveReadConfig :
+// a ConnectionFactory bean would make Spring Boot back off from the JDBC DataSource used by JPA
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class PlaylistApplication {
 
 	public static void main(String[] args) {
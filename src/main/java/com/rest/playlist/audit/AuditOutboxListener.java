@@ -0,0 +1,198 @@
+package com.rest.playlist.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.model.AbstractAuditModel;
+import com.rest.playlist.model.AuditOutboxEntry;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.envers.RevisionType;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * replaces the Envers listeners when playlist.audit.mode=async : the changes of Song and Melody are collected
+ * during the flush and written to the audit_outbox table just before the transaction commits, in the same way
+ * Envers writes its _AUD rows, so an outbox entry exists if and only if the change is committed.
+ * The revisions themselves are written later by AuditOutboxWriter.
+ */
+
+@Component
+@ConditionalOnProperty(name = "playlist.audit.mode", havingValue = "async")
+public class AuditOutboxListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final ObjectMapper PAYLOAD_MAPPER = new ObjectMapper();
+    private static final short ADD = RevisionType.ADD.getRepresentation().shortValue();
+    private static final short MOD = RevisionType.MOD.getRepresentation().shortValue();
+    private static final short DEL = RevisionType.DEL.getRepresentation().shortValue();
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditOutboxWriter auditOutboxWriter;
+    private final Map<Transaction, OutboxTransaction> transactions = new ConcurrentHashMap<>();
+
+    public AuditOutboxListener(EntityManagerFactory entityManagerFactory, AuditOutboxWriter auditOutboxWriter) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.auditOutboxWriter = auditOutboxWriter;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        capture(event.getSession(), event.getEntity(), event.getId(), RevisionType.ADD);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        capture(event.getSession(), event.getEntity(), event.getId(), RevisionType.MOD);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        capture(event.getSession(), event.getEntity(), event.getId(), RevisionType.DEL);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void capture(EventSource session, Object entity, Serializable id, RevisionType revisionType) {
+        AuditedTable table = AuditedTable.of(entity);
+        if (table == null) {
+            return;
+        }
+
+        AuditOutboxEntry entry = new AuditOutboxEntry();
+        entry.setEntityType(table.name());
+        entry.setEntityId((Long) id);
+        entry.setRevtype(revisionType.getRepresentation().shortValue());
+        entry.setPayload(revisionType == RevisionType.DEL ? "{}" : toJson(table.snapshot((AbstractAuditModel) entity)));
+
+        transactions.computeIfAbsent(session.accessTransaction(), transaction -> {
+            OutboxTransaction outboxTransaction = new OutboxTransaction(transaction);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) outboxTransaction);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) outboxTransaction);
+            return outboxTransaction;
+        }).add(entry);
+    }
+
+    private static String toJson(Map<String, Object> snapshot) {
+        try {
+            return PAYLOAD_MAPPER.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("audit snapshot can not be written as JSON", e);
+        }
+    }
+
+    /**
+     * the outbox entries of one transaction, they share a tx_id and the time of the commit
+     */
+    private class OutboxTransaction implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final Transaction transaction;
+        private final String txId = UUID.randomUUID().toString();
+        private final Map<String, AuditOutboxEntry> entries = new LinkedHashMap<>();
+
+        OutboxTransaction(Transaction transaction) {
+            this.transaction = transaction;
+        }
+
+        /**
+         * one entry per entity and transaction, merged the way Envers merges its work units :
+         * added then modified stays added with the last state, added then deleted leaves nothing,
+         * deleted then added again becomes a modification
+         */
+        void add(AuditOutboxEntry entry) {
+            String key = entry.getEntityType() + ":" + entry.getEntityId();
+            AuditOutboxEntry previous = entries.get(key);
+            if (previous == null) {
+                entries.put(key, entry);
+                return;
+            }
+            short previousType = previous.getRevtype();
+            short type = entry.getRevtype();
+            if (previousType == ADD && type == DEL) {
+                entries.remove(key);
+                return;
+            }
+            if (previousType == ADD) {
+                entry.setRevtype(ADD);
+            } else if (previousType == DEL && type == ADD) {
+                entry.setRevtype(MOD);
+            }
+            entries.put(key, entry);
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            long capturedAt = System.currentTimeMillis();
+            // a read-only session is never flushed : the entries then go through a session of their own
+            if (session.getHibernateFlushMode() == FlushMode.MANUAL || session.isClosed()) {
+                Session outboxSession = ((Session) session).sessionWithOptions()
+                        .connection()
+                        .autoClose(false)
+                        .connectionHandlingMode(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION)
+                        .openSession();
+                try {
+                    save(outboxSession, capturedAt);
+                    outboxSession.flush();
+                } finally {
+                    outboxSession.close();
+                }
+            } else {
+                save(session, capturedAt);
+                session.flush();
+            }
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            transactions.remove(transaction);
+            if (success) {
+                auditOutboxWriter.enqueued(entries.size());
+            }
+        }
+
+        private void save(Session session, long capturedAt) {
+            for (AuditOutboxEntry entry : entries.values()) {
+                entry.setTxId(txId);
+                entry.setCapturedAt(capturedAt);
+                session.save(entry);
+            }
+        }
+    }
+}
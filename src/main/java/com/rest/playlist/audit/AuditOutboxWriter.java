@@ -0,0 +1,208 @@
+package com.rest.playlist.audit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.model.AuditOutboxEntry;
+import com.rest.playlist.repository.AuditOutboxRepository;
+import org.hibernate.envers.DefaultRevisionEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * background writer of the audit outbox (playlist.audit.mode=async) : every playlist.audit.writer.interval-ms,
+ * or as soon as a full batch is waiting, the oldest entries are turned into one REVINFO row per transaction
+ * and JDBC batches of _AUD rows, then deleted, all in one transaction.
+ * An entry is deleted only with the audit rows it produced, entries left by a crash are written after the restart.
+ * A transaction cut by the end of a batch gets a second revision for the rest of its changes.
+ * The backlog is bounded by playlist.audit.outbox.max-pending : beyond it the write requests are answered with 503.
+ * Each instance counts the entries its own requests enqueued, the drains of other instances make that count drift,
+ * so it is read again from the table every playlist.audit.outbox.count-interval-ms.
+ * A revision is stamped with the time of the drain that creates it, not the capture time of its changes :
+ * its number is only assigned then, and the change feeds trust revisions older than their commit lag
+ * to be committed, which a capture time far in the past would break.
+ */
+
+@Component
+@ConditionalOnProperty(name = "playlist.audit.mode", havingValue = "async")
+public class AuditOutboxWriter implements InitializingBean, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(AuditOutboxWriter.class);
+
+    private static final ObjectMapper PAYLOAD_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    private final AuditOutboxRepository auditOutboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long intervalMillis;
+    private final long maxPending;
+    private final long countIntervalMillis;
+
+    private final AtomicLong pending = new AtomicLong();
+    private volatile long countedAt;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AuditOutboxWriter(AuditOutboxRepository auditOutboxRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${playlist.audit.writer.batch-size:500}") int batchSize,
+                             @Value("${playlist.audit.writer.interval-ms:200}") long intervalMillis,
+                             @Value("${playlist.audit.outbox.max-pending:100000}") long maxPending,
+                             @Value("${playlist.audit.outbox.count-interval-ms:5000}") long countIntervalMillis) {
+        this.auditOutboxRepository = auditOutboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+        this.maxPending = maxPending;
+        this.countIntervalMillis = countIntervalMillis;
+    }
+
+    // entries committed before a restart are part of the backlog
+    @Override
+    public void afterPropertiesSet() {
+        countPending();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-outbox-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::drainSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // the entries not written yet stay in the outbox for the next start
+    @Override
+    public void destroy() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    public boolean isFull() {
+        return maxPending > 0 && pending.get() >= maxPending;
+    }
+
+    public long getPending() {
+        return pending.get();
+    }
+
+    /**
+     * called once a transaction carrying outbox entries has committed
+     */
+    void enqueued(int count) {
+        if (pending.addAndGet(count) >= batchSize && scheduler != null && !scheduler.isShutdown()
+                && drainScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::drainSafely);
+        }
+    }
+
+    /**
+     * writes the outbox until it is empty, returns the number of entries written
+     */
+    public int drainAll() {
+        int total = 0;
+        int written;
+        do {
+            written = drain();
+            total += written;
+        } while (written > 0);
+        return total;
+    }
+
+    /**
+     * writes at most one batch of entries, returns the number of entries written
+     */
+    public int drain() {
+        Integer written = transactionTemplate.execute(status -> {
+            List<AuditOutboxEntry> entries = auditOutboxRepository.findByOrderByIdAsc(PageRequest.of(0, batchSize));
+            if (entries.isEmpty()) {
+                return 0;
+            }
+
+            // one revision per transaction, as Envers does, stamped when its number is assigned
+            long drainedAt = System.currentTimeMillis();
+            Map<String, Integer> revisions = new HashMap<>();
+            Map<AuditedTable, List<Object[]>> rows = new EnumMap<>(AuditedTable.class);
+            for (AuditOutboxEntry entry : entries) {
+                Integer revision = revisions.computeIfAbsent(entry.getTxId(), txId -> newRevision(drainedAt));
+                AuditedTable table = AuditedTable.valueOf(entry.getEntityType());
+                rows.computeIfAbsent(table, key -> new ArrayList<>())
+                        .add(table.row(entry.getEntityId(), revision, entry.getRevtype(), readPayload(entry)));
+            }
+            entityManager.flush();
+            rows.forEach((table, tableRows) -> jdbcTemplate.batchUpdate(table.getInsertSql(), tableRows));
+            List<Long> ids = new ArrayList<>(entries.size());
+            entries.forEach(entry -> ids.add(entry.getId()));
+            auditOutboxRepository.deleteAllByIdInBatch(ids);
+            return entries.size();
+        });
+        pending.updateAndGet(value -> Math.max(0, value - written));
+        if (System.currentTimeMillis() - countedAt >= countIntervalMillis) {
+            countPending();
+        }
+        return written;
+    }
+
+    // entries enqueued by other instances or drained by them are only seen by counting the table
+    private void countPending() {
+        countedAt = System.currentTimeMillis();
+        pending.set(auditOutboxRepository.count());
+    }
+
+    private void drainSafely() {
+        drainScheduled.set(false);
+        try {
+            int written;
+            do {
+                written = drain();
+            } while (written == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Audit outbox : write failed, {} entries pending, retrying in {} ms", pending.get(), intervalMillis, e);
+        }
+    }
+
+    private Integer newRevision(long timestamp) {
+        DefaultRevisionEntity revision = new DefaultRevisionEntity();
+        revision.setTimestamp(timestamp);
+        entityManager.persist(revision);
+        return revision.getId();
+    }
+
+    private static Map<String, Object> readPayload(AuditOutboxEntry entry) {
+        try {
+            return PAYLOAD_MAPPER.readValue(entry.getPayload(), PAYLOAD_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("invalid audit outbox payload for entry " + entry.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.rest.playlist.audit;
+
+import com.rest.playlist.model.AuditOutboxEntry;
+import com.rest.playlist.repository.AuditOutboxRepository;
+import org.hibernate.envers.AuditReaderFactory;
+import org.hibernate.envers.DefaultRevisionEntity;
+import org.hibernate.envers.RevisionType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * audit of the songs and melodies removed by a set-based DELETE, which neither Envers nor AuditOutboxListener see.
+ * In sync mode the DEL rows are written to the _AUD tables under the Envers revision of the current transaction,
+ * in async mode they go to the audit outbox as one transaction and become a revision like any other change.
+ * As Envers does by default, a DEL row only keeps the id.
+ */
+
+@Component
+public class AuditedDeletions {
+
+    private static final short DEL = RevisionType.DEL.getRepresentation().shortValue();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditOutboxRepository auditOutboxRepository;
+    private final ObjectProvider<AuditOutboxWriter> auditOutboxWriter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AuditedDeletions(JdbcTemplate jdbcTemplate, AuditOutboxRepository auditOutboxRepository,
+                            ObjectProvider<AuditOutboxWriter> auditOutboxWriter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.auditOutboxRepository = auditOutboxRepository;
+        this.auditOutboxWriter = auditOutboxWriter;
+    }
+
+    /**
+     * must run in the transaction of the DELETE statements, the audit rows commit or roll back with them
+     */
+    public void deleted(Collection<Long> songIds, Collection<Long> melodyIds) {
+        AuditOutboxWriter writer = auditOutboxWriter.getIfAvailable();
+        if (writer == null) {
+            writeRevision(songIds, melodyIds);
+        } else {
+            enqueue(writer, songIds, melodyIds);
+        }
+    }
+
+    private void writeRevision(Collection<Long> songIds, Collection<Long> melodyIds) {
+        DefaultRevisionEntity revision = AuditReaderFactory.get(entityManager)
+                .getCurrentRevision(DefaultRevisionEntity.class, true);
+        // the REVINFO row before the _AUD rows referencing it
+        entityManager.flush();
+        jdbcTemplate.batchUpdate(AuditedTable.SONG.getInsertSql(), rows(AuditedTable.SONG, songIds, revision.getId()));
+        jdbcTemplate.batchUpdate(AuditedTable.MELODY.getInsertSql(), rows(AuditedTable.MELODY, melodyIds, revision.getId()));
+    }
+
+    private void enqueue(AuditOutboxWriter writer, Collection<Long> songIds, Collection<Long> melodyIds) {
+        String txId = UUID.randomUUID().toString();
+        long capturedAt = System.currentTimeMillis();
+        List<AuditOutboxEntry> entries = new ArrayList<>(songIds.size() + melodyIds.size());
+        songIds.forEach(id -> entries.add(entry(txId, capturedAt, AuditedTable.SONG, id)));
+        melodyIds.forEach(id -> entries.add(entry(txId, capturedAt, AuditedTable.MELODY, id)));
+        auditOutboxRepository.saveAll(entries);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writer.enqueued(entries.size());
+            }
+        });
+    }
+
+    private static List<Object[]> rows(AuditedTable table, Collection<Long> ids, int revision) {
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        ids.forEach(id -> rows.add(table.row(id, revision, DEL, Collections.emptyMap())));
+        return rows;
+    }
+
+    private static AuditOutboxEntry entry(String txId, long capturedAt, AuditedTable table, Long id) {
+        AuditOutboxEntry entry = new AuditOutboxEntry();
+        entry.setTxId(txId);
+        entry.setCapturedAt(capturedAt);
+        entry.setEntityType(table.name());
+        entry.setEntityId(id);
+        entry.setRevtype(DEL);
+        entry.setPayload("{}");
+        return entry;
+    }
+}
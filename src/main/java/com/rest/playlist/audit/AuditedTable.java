@@ -0,0 +1,129 @@
+package com.rest.playlist.audit;
+
+import com.rest.playlist.model.AbstractAuditModel;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the Envers audit tables written by AuditOutboxWriter, with the columns Envers gives them (see the V3 migration) :
+ * id, rev, revtype, the audit dates and the audited fields, the version is not audited.
+ */
+enum AuditedTable {
+
+    SONG("songs_aud", "title", "description", "duration_ms", "artist_name", "category", "melody_id") {
+        @Override
+        Map<String, Object> fields(AbstractAuditModel entity) {
+            Song song = (Song) entity;
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("title", song.getTitle());
+            fields.put("description", song.getDescription());
+            fields.put("duration_ms", song.getDuration());
+            fields.put("artist_name", song.getArtistName());
+            fields.put("category", song.getCategory() == null ? null : song.getCategory().name());
+            fields.put("melody_id", melodyId(song.getMelody()));
+            return fields;
+        }
+    },
+
+    MELODY("melody_aud", "pitch", "duration_ms", "type") {
+        @Override
+        Map<String, Object> fields(AbstractAuditModel entity) {
+            Melody melody = (Melody) entity;
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("pitch", melody.getPitch());
+            fields.put("duration_ms", melody.getDuration());
+            fields.put("type", melody.getType() == null ? null : melody.getType().name());
+            return fields;
+        }
+    };
+
+    private static final List<String> DATE_COLUMNS = Arrays.asList("created_at", "updated_at");
+
+    private final String tableName;
+    private final List<String> fieldColumns;
+    private final String insertSql;
+
+    AuditedTable(String tableName, String... fieldColumns) {
+        this.tableName = tableName;
+        this.fieldColumns = Collections.unmodifiableList(Arrays.asList(fieldColumns));
+        // an enum constructor can not read the static DATE_COLUMNS, they are listed again here
+        StringBuilder columns = new StringBuilder("id, rev, revtype, created_at, updated_at");
+        StringBuilder values = new StringBuilder("?, ?, ?, ?, ?");
+        for (String column : fieldColumns) {
+            columns.append(", ").append(column);
+            values.append(", ?");
+        }
+        this.insertSql = "insert into " + tableName + " (" + columns + ") values (" + values + ")";
+    }
+
+    abstract Map<String, Object> fields(AbstractAuditModel entity);
+
+    static AuditedTable of(Object entity) {
+        if (entity instanceof Song) {
+            return SONG;
+        }
+        if (entity instanceof Melody) {
+            return MELODY;
+        }
+        return null;
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    String getInsertSql() {
+        return insertSql;
+    }
+
+    /**
+     * the audited columns of the entity as JSON friendly values : dates as ISO-8601 strings, enums by name,
+     * the melody by its id
+     */
+    Map<String, Object> snapshot(AbstractAuditModel entity) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("created_at", entity.getCreateAt() == null ? null : entity.getCreateAt().toString());
+        snapshot.put("updated_at", entity.getUpdatedAt() == null ? null : entity.getUpdatedAt().toString());
+        snapshot.putAll(fields(entity));
+        return snapshot;
+    }
+
+    /**
+     * parameters of insertSql for one outbox entry, a deletion keeps only the id like Envers does by default
+     */
+    Object[] row(Long entityId, int revision, short revtype, Map<String, Object> snapshot) {
+        Object[] row = new Object[3 + DATE_COLUMNS.size() + fieldColumns.size()];
+        int index = 0;
+        row[index++] = entityId;
+        row[index++] = revision;
+        row[index++] = revtype;
+        for (String column : DATE_COLUMNS) {
+            Object value = snapshot.get(column);
+            row[index++] = value == null ? null : Timestamp.from(Instant.parse((String) value));
+        }
+        for (String column : fieldColumns) {
+            row[index++] = snapshot.get(column);
+        }
+        return row;
+    }
+
+    // a melody proxy is not initialized just to read its id
+    private static Long melodyId(Melody melody) {
+        if (melody == null) {
+            return null;
+        }
+        if (melody instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) melody).getHibernateLazyInitializer().getIdentifier();
+        }
+        return melody.getId();
+    }
+}
@@ -0,0 +1,41 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.audit.AuditOutboxWriter;
+import com.rest.playlist.web.interceptor.AuditBacklogInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * audit mode : with playlist.audit.mode=sync Envers writes the revision and the _AUD rows in the transaction
+ * of the change, with playlist.audit.mode=async the Envers listeners are not registered, the changes go through
+ * the audit_outbox table and AuditOutboxWriter writes the same revisions in the background.
+ * The Envers mappings are kept in both modes, the revisions are read the same way.
+ */
+
+@Configuration
+public class AuditConfig implements WebMvcConfigurer {
+
+    private static final String ENVERS_AUTO_REGISTER_LISTENERS = "hibernate.envers.autoRegisterListeners";
+
+    private final ObjectProvider<AuditOutboxWriter> auditOutboxWriter;
+
+    public AuditConfig(ObjectProvider<AuditOutboxWriter> auditOutboxWriter) {
+        this.auditOutboxWriter = auditOutboxWriter;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer auditModeCustomizer(@Value("${playlist.audit.mode:sync}") String auditMode) {
+        return hibernateProperties -> hibernateProperties.put(ENVERS_AUTO_REGISTER_LISTENERS, !"async".equals(auditMode));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        auditOutboxWriter.ifAvailable(writer -> registry.addInterceptor(new AuditBacklogInterceptor(writer))
+                .addPathPatterns("/api/**"));
+    }
+}
@@ -0,0 +1,18 @@
+package com.rest.playlist.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * in-process read-through caches in front of the song lookups.
+ * The provider, size, TTL and eviction policy come from the spring.cache.* properties
+ * (Caffeine, W-TinyLFU eviction), so another CacheManager can be plugged without touching the service.
+ */
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String SONGS_CACHE = "songs";
+    public static final String SONG_IDS_BY_MELODY_CACHE = "songIdsByMelody";
+}
@@ -0,0 +1,46 @@
+package com.rest.playlist.config;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+
+/**
+ * R2DBC client of the reactive read path, enabled with playlist.reactive.enabled=true.
+ * The connection factory stays private to this class (see PlaylistApplication) and is closed with the context.
+ */
+
+@Configuration
+@ConditionalOnProperty(name = "playlist.reactive.enabled", havingValue = "true")
+public class ReactiveReadConfig implements DisposableBean {
+
+    private ConnectionFactory connectionFactory;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(@Value("${playlist.reactive.r2dbc.url}") String url,
+                                                 @Value("${playlist.reactive.r2dbc.username:}") String username,
+                                                 @Value("${playlist.reactive.r2dbc.password:}") String password) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (!password.isEmpty()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        connectionFactory = ConnectionFactories.get(options.build());
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionFactory instanceof Disposable) {
+            ((Disposable) connectionFactory).dispose();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.web.interceptor.ConcurrencyLimitInterceptor;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * request execution : with playlist.execution.mode=virtual Tomcat runs each request on its own virtual thread
+ * (JDK 21 and later, otherwise the tuned server.tomcat.threads pool is kept),
+ * playlist.execution.max-concurrent-requests bounds the requests running in the /api handlers (0 disables the limit).
+ * With platform threads the limit only triggers below server.tomcat.threads.max : at the pool size the requests
+ * queue in Tomcat's accept queue before reaching the interceptor, a warning is logged at startup.
+ */
+
+@Configuration
+public class RequestExecutionConfig implements WebMvcConfigurer, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(RequestExecutionConfig.class);
+
+    private final int maxConcurrentRequests;
+    private final long acquireTimeoutMillis;
+    private ExecutorService virtualThreadExecutor;
+
+    public RequestExecutionConfig(@Value("${playlist.execution.max-concurrent-requests:0}") int maxConcurrentRequests,
+                                  @Value("${playlist.execution.acquire-timeout-ms:0}") long acquireTimeoutMillis,
+                                  @Value("${playlist.execution.mode:platform}") String executionMode,
+                                  @Value("${server.tomcat.threads.max:200}") int maxThreads) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        if (!"virtual".equals(executionMode) && maxConcurrentRequests >= maxThreads) {
+            log.warn("playlist.execution.max-concurrent-requests={} is not below server.tomcat.threads.max={}, "
+                    + "the /api concurrency limit never rejects a request", maxConcurrentRequests, maxThreads);
+        }
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "playlist.execution.mode", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadExecutorCustomizer() {
+        virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> {
+            if (virtualThreadExecutor != null) {
+                protocolHandler.setExecutor(virtualThreadExecutor);
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (maxConcurrentRequests > 0) {
+            registry.addInterceptor(new ConcurrencyLimitInterceptor(maxConcurrentRequests, acquireTimeoutMillis))
+                    .addPathPatterns("/api/**");
+        }
+    }
+
+    // Tomcat does not shut down an executor it did not create
+    @Override
+    public void destroy() {
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
+    }
+
+    // the project targets Java 8, Executors.newVirtualThreadPerTaskExecutor is looked up at runtime
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not available on Java {}, requests run on the Tomcat thread pool",
+                    System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.rest.playlist.config;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import javax.cache.CacheManager;
+import java.io.IOException;
+
+/**
+ * JCache manager backing the Hibernate second-level and query caches.
+ * Regions are declared in the file given by playlist.cache.hibernate.config (ehcache.xml by default),
+ * each application context gets its own provider so contexts never share cached rows.
+ */
+
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${playlist.cache.hibernate.config}") Resource config) throws IOException {
+        return new EhcacheCachingProvider().getCacheManager(config.getURI(), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
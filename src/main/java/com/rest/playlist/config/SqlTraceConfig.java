@@ -0,0 +1,59 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.diagnostics.SqlTraceEndpoint;
+import com.rest.playlist.diagnostics.SqlTraceFilter;
+import com.rest.playlist.diagnostics.SqlTraceListener;
+import com.rest.playlist.diagnostics.SqlTraceStatistics;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * wraps the DataSource in a datasource-proxy so that every statement is traced per HTTP request.
+ * Disabled with playlist.sql-trace.enabled=false.
+ */
+
+@Configuration
+@ConditionalOnProperty(name = "playlist.sql-trace.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTraceConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlTraceDataSourcePostProcessor(
+            @Value("${playlist.sql-trace.slow-statement-ms:100}") long slowStatementMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .listener(new SqlTraceListener(slowStatementMillis))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlTraceStatistics sqlTraceStatistics() {
+        return new SqlTraceStatistics();
+    }
+
+    @Bean
+    public SqlTraceFilter sqlTraceFilter(SqlTraceStatistics sqlTraceStatistics,
+                                         @Value("${playlist.sql-trace.statement-budget:10}") int statementBudget,
+                                         @Value("${playlist.sql-trace.sql-time-budget-ms:200}") long sqlTimeBudgetMillis) {
+        return new SqlTraceFilter(sqlTraceStatistics, statementBudget, sqlTimeBudgetMillis);
+    }
+
+    @Bean
+    public SqlTraceEndpoint sqlTraceEndpoint(SqlTraceStatistics sqlTraceStatistics) {
+        return new SqlTraceEndpoint(sqlTraceStatistics);
+    }
+}
@@ -0,0 +1,69 @@
+package com.rest.playlist.diagnostics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL aggregates of one endpoint since startup (or the last reset of the sqltrace endpoint)
+ */
+public class EndpointSqlStatistics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder sqlMillis = new LongAdder();
+    private final LongAdder overBudget = new LongAdder();
+    private final AtomicLong maxStatements = new AtomicLong();
+    private long slowestMillis;
+    private String slowestStatement;
+
+    void record(RequestSqlTrace trace, boolean exceedsBudget) {
+        requests.increment();
+        statements.add(trace.getStatementCount());
+        sqlMillis.add(trace.getTotalMillis());
+        maxStatements.accumulateAndGet(trace.getStatementCount(), Math::max);
+        if (exceedsBudget) {
+            overBudget.increment();
+        }
+        if (trace.getSlowestStatement() != null) {
+            synchronized (this) {
+                if (slowestStatement == null || trace.getSlowestMillis() > slowestMillis) {
+                    slowestMillis = trace.getSlowestMillis();
+                    slowestStatement = trace.getSlowestStatement();
+                }
+            }
+        }
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getSqlMillis() {
+        return sqlMillis.sum();
+    }
+
+    public long getMaxStatements() {
+        return maxStatements.get();
+    }
+
+    public long getOverBudget() {
+        return overBudget.sum();
+    }
+
+    public double getAverageStatements() {
+        long count = getRequests();
+        return count == 0 ? 0 : (double) getStatements() / count;
+    }
+
+    public synchronized long getSlowestMillis() {
+        return slowestMillis;
+    }
+
+    public synchronized String getSlowestStatement() {
+        return slowestStatement;
+    }
+}
@@ -0,0 +1,54 @@
+package com.rest.playlist.diagnostics;
+
+/**
+ * SQL executed by the HTTP request bound to the current thread.
+ * A JDBC batch counts as one statement since it is a single round trip to the database.
+ */
+public class RequestSqlTrace {
+
+    private static final ThreadLocal<RequestSqlTrace> CURRENT = new ThreadLocal<>();
+
+    private int statementCount;
+    private long totalMillis;
+    private long slowestMillis = -1;
+    private String slowestStatement;
+
+    static RequestSqlTrace start() {
+        RequestSqlTrace trace = new RequestSqlTrace();
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    static RequestSqlTrace current() {
+        return CURRENT.get();
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    void record(String statement, long elapsedMillis) {
+        statementCount++;
+        totalMillis += elapsedMillis;
+        if (elapsedMillis > slowestMillis) {
+            slowestMillis = elapsedMillis;
+            slowestStatement = statement;
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public long getSlowestMillis() {
+        return Math.max(slowestMillis, 0);
+    }
+
+    public String getSlowestStatement() {
+        return slowestStatement;
+    }
+}
@@ -0,0 +1,31 @@
+package com.rest.playlist.diagnostics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * /actuator/sqltrace : SQL statements per endpoint, DELETE resets the aggregates
+ */
+
+@Endpoint(id = "sqltrace")
+public class SqlTraceEndpoint {
+
+    private final SqlTraceStatistics statistics;
+
+    public SqlTraceEndpoint(SqlTraceStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @ReadOperation
+    public Map<String, EndpointSqlStatistics> sqlTrace() {
+        return statistics.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+    }
+}
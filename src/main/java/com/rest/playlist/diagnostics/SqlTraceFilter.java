@@ -0,0 +1,66 @@
+package com.rest.playlist.diagnostics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * opens a SQL trace for each /api request, adds it to the statistics of its endpoint
+ * and logs the requests exceeding the statement budget or the SQL time budget.
+ * The SQL time budget is the time spent in JDBC statements, not the duration of the request.
+ * The endpoint is the method and the mapping pattern, the requests no handler matched share UNMATCHED_ENDPOINT :
+ * keying them by URI would let any client grow the statistics without bound.
+ * The trace is bound to the request thread, which is also the virtual thread of the request in virtual mode.
+ * A request that went async (NDJSON export, SSE stream, reactive endpoints) runs its statements on other threads
+ * the trace does not follow : it is left out of the statistics rather than recorded with a partial count.
+ */
+public class SqlTraceFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(SqlTraceFilter.class);
+
+    public static final String UNMATCHED_ENDPOINT = "<unmatched>";
+
+    private final SqlTraceStatistics statistics;
+    private final int statementBudget;
+    private final long sqlTimeBudgetMillis;
+
+    public SqlTraceFilter(SqlTraceStatistics statistics, int statementBudget, long sqlTimeBudgetMillis) {
+        this.statistics = statistics;
+        this.statementBudget = statementBudget;
+        this.sqlTimeBudgetMillis = sqlTimeBudgetMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestSqlTrace trace = RequestSqlTrace.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestSqlTrace.end();
+            if (request.isAsyncStarted()) {
+                return;
+            }
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String endpoint = pattern != null ? request.getMethod() + " " + pattern : UNMATCHED_ENDPOINT;
+            boolean exceedsBudget = trace.getStatementCount() > statementBudget || trace.getTotalMillis() > sqlTimeBudgetMillis;
+            statistics.record(endpoint, trace, exceedsBudget);
+            if (exceedsBudget) {
+                log.warn("{} exceeded its SQL budget : {} statements (budget {}), {} ms of SQL (budget {} ms), slowest {} ms : {}",
+                        endpoint, trace.getStatementCount(), statementBudget, trace.getTotalMillis(), sqlTimeBudgetMillis,
+                        trace.getSlowestMillis(), trace.getSlowestStatement());
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.rest.playlist.diagnostics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * adds every statement run through the proxied DataSource to the trace of the current request
+ * and logs the statements slower than playlist.sql-trace.slow-statement-ms.
+ * Only the SQL text with its ? placeholders is kept, bound parameters are never read.
+ */
+public class SqlTraceListener implements QueryExecutionListener {
+    private static final Logger log = LoggerFactory.getLogger(SqlTraceListener.class);
+
+    private final long slowStatementMillis;
+
+    public SqlTraceListener(long slowStatementMillis) {
+        this.slowStatementMillis = slowStatementMillis;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String statement = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        long elapsedMillis = execInfo.getElapsedTime();
+
+        RequestSqlTrace trace = RequestSqlTrace.current();
+        if (trace != null) {
+            trace.record(statement, elapsedMillis);
+        }
+        if (elapsedMillis >= slowStatementMillis) {
+            log.warn("Slow SQL statement ({} ms, batch size {}, parameters redacted) : {}",
+                    elapsedMillis, Math.max(execInfo.getBatchSize(), 1), statement);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.rest.playlist.diagnostics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL aggregates per endpoint, keyed by "METHOD /uri/{pattern}" or SqlTraceFilter.UNMATCHED_ENDPOINT
+ */
+public class SqlTraceStatistics {
+
+    private final Map<String, EndpointSqlStatistics> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, RequestSqlTrace trace, boolean exceedsBudget) {
+        endpoints.computeIfAbsent(endpoint, key -> new EndpointSqlStatistics()).record(trace, exceedsBudget);
+    }
+
+    public EndpointSqlStatistics get(String endpoint) {
+        return endpoints.get(endpoint);
+    }
+
+    public Map<String, EndpointSqlStatistics> snapshot() {
+        return new TreeMap<>(endpoints);
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+}
@@ -0,0 +1,24 @@
+package com.rest.playlist.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * error reported for one item of a batch :
+ * index is the position of the item in the submitted array or NDJSON stream.
+ */
+
+@Getter
+public class BatchItemError {
+
+    private int index;
+    private String field;
+    private String message;
+
+    @Builder
+    private BatchItemError(int index, String field, String message) {
+        this.index = index;
+        this.field = field;
+        this.message = message;
+    }
+}
@@ -0,0 +1,36 @@
+package com.rest.playlist.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * response of a batch creation, eg :
+ * {
+ * "received": 3,
+ * "created": 2,
+ * "errors": [
+ * {
+ * "index": 1,
+ * "field": "title",
+ * "message": "NotBlank: titre ne doit pas être null ou vide"
+ * }
+ * ]
+ * }
+ */
+
+@Getter
+public class BatchResult {
+
+    private int received;
+    private int created;
+    private List<BatchItemError> errors;
+
+    @Builder
+    private BatchResult(int received, int created, List<BatchItemError> errors) {
+        this.received = received;
+        this.created = created;
+        this.errors = errors;
+    }
+}
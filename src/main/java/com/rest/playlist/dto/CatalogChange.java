@@ -0,0 +1,34 @@
+package com.rest.playlist.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * everything one committed transaction changed in the catalog, eg :
+ * {
+ * "revision": 42,
+ * "revisionDate": "2021-12-01T10:15:30.000+00:00",
+ * "songs": [ { "revision": 42, "changeType": "MOD", "id": 1000, "title": "Stay With Me", ... } ],
+ * "melodies": [ { "changeType": "MOD", "id": 2000, "pitch": "Melody Pitch", ... } ]
+ * }
+ */
+
+@Getter
+public class CatalogChange {
+
+    private Long revision;
+    private Date revisionDate;
+    private List<SongRevision> songs;
+    private List<MelodyRevision> melodies;
+
+    @Builder
+    private CatalogChange(Long revision, Date revisionDate, List<SongRevision> songs, List<MelodyRevision> melodies) {
+        this.revision = revision;
+        this.revisionDate = revisionDate;
+        this.songs = songs;
+        this.melodies = melodies;
+    }
+}
@@ -0,0 +1,32 @@
+package com.rest.playlist.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * statistics of the catalog : the whole catalog, each category, each melody type and the artists with the most songs,
+ * computedAt is when the database was read.
+ */
+
+@Getter
+public class CatalogStats {
+
+    private GroupStats total;
+    private List<GroupStats> categories;
+    private List<GroupStats> melodyTypes;
+    private List<GroupStats> artists;
+    private Date computedAt;
+
+    @Builder
+    private CatalogStats(GroupStats total, List<GroupStats> categories, List<GroupStats> melodyTypes,
+                         List<GroupStats> artists, Date computedAt) {
+        this.total = total;
+        this.categories = categories;
+        this.melodyTypes = melodyTypes;
+        this.artists = artists;
+        this.computedAt = computedAt;
+    }
+}
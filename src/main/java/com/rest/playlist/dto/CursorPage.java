@@ -0,0 +1,25 @@
+package com.rest.playlist.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * one page of a keyset (seek) pagination :
+ * content holds the rows ordered by id and nextCursor is the id to pass as cursor
+ * to read the following page, nextCursor is null on the last page.
+ */
+
+@Getter
+public class CursorPage<T> {
+
+    private List<T> content;
+    private Long nextCursor;
+
+    @Builder
+    private CursorPage(List<T> content, Long nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,39 @@
+package com.rest.playlist.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * number of songs of one group and aggregates of their durations in milliseconds, eg :
+ * {
+ * "key": "POP",
+ * "songCount": 42,
+ * "totalDuration": 7602000,
+ * "minDuration": 150000,
+ * "maxDuration": 262000,
+ * "averageDuration": 181000
+ * }
+ * the key is null for the whole catalog, the durations are null for an empty group.
+ */
+
+@Getter
+public class GroupStats {
+
+    private String key;
+    private long songCount;
+    private Long totalDuration;
+    private Long minDuration;
+    private Long maxDuration;
+    private Long averageDuration;
+
+    @Builder
+    private GroupStats(String key, long songCount, Long totalDuration, Long minDuration, Long maxDuration,
+                       Long averageDuration) {
+        this.key = key;
+        this.songCount = songCount;
+        this.totalDuration = totalDuration;
+        this.minDuration = minDuration;
+        this.maxDuration = maxDuration;
+        this.averageDuration = averageDuration;
+    }
+}
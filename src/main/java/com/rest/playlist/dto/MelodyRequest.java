@@ -0,0 +1,22 @@
+package com.rest.playlist.dto;
+
+import com.rest.playlist.enums.MelodyType;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * melody of a song creation or full update
+ */
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class MelodyRequest {
+
+    private Long id;
+    private String pitch;
+    private String duration;
+    private MelodyType type;
+    private Long version;
+}
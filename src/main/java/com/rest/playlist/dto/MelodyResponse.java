@@ -0,0 +1,29 @@
+package com.rest.playlist.dto;
+
+import com.rest.playlist.enums.MelodyType;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * melody of a song as rendered by the API.
+ */
+
+@Getter
+public class MelodyResponse {
+
+    private Long id;
+    private String pitch;
+    // in milliseconds
+    private Long duration;
+    private MelodyType type;
+    private Long version;
+
+    @Builder
+    private MelodyResponse(Long id, String pitch, Long duration, MelodyType type, Long version) {
+        this.id = id;
+        this.pitch = pitch;
+        this.duration = duration;
+        this.type = type;
+        this.version = version;
+    }
+}
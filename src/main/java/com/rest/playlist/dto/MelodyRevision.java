@@ -0,0 +1,30 @@
+package com.rest.playlist.dto;
+
+import com.rest.playlist.enums.ChangeType;
+import com.rest.playlist.enums.MelodyType;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * state of a melody at one revision, read from the melody_aud audit table, a deletion (DEL) only carries the id.
+ */
+
+@Getter
+public class MelodyRevision {
+
+    private ChangeType changeType;
+    private Long id;
+    private String pitch;
+    // in milliseconds
+    private Long duration;
+    private MelodyType type;
+
+    @Builder
+    private MelodyRevision(ChangeType changeType, Long id, String pitch, Long duration, MelodyType type) {
+        this.changeType = changeType;
+        this.id = id;
+        this.pitch = pitch;
+        this.duration = duration;
+        this.type = type;
+    }
+}
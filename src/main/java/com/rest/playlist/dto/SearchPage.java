@@ -0,0 +1,24 @@
+package com.rest.playlist.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * one page of a ranked search : content holds the rows best match first
+ * and total is the number of matching rows over all pages.
+ */
+
+@Getter
+public class SearchPage<T> {
+
+    private List<T> content;
+    private long total;
+
+    @Builder
+    private SearchPage(List<T> content, long total) {
+        this.content = content;
+        this.total = total;
+    }
+}
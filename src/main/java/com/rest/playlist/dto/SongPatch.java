@@ -0,0 +1,40 @@
+package com.rest.playlist.dto;
+
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.mapper.DurationParser;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+/**
+ * body of a partial update, only the non null fields are applied to the song, eg :
+ * {
+ * "title": "Power",
+ * "version": 3
+ * }
+ */
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class SongPatch {
+
+    @Size(min = 3, max = 50, message = "titre doit être compris entre 3 et 50 caractères")
+    private String title;
+
+    @Size(min = 3, max = 50, message = "description doit être compris entre 3 et 50 caractères")
+    private String description;
+
+    @Pattern(regexp = DurationParser.FORMAT, message = DurationParser.MESSAGE)
+    private String duration;
+
+    @Pattern(regexp = ".*\\S.*", message = "artistname ne doit pas être vide")
+    private String artistName;
+
+    private SongCategory category;
+
+    private Long version;
+}
@@ -0,0 +1,63 @@
+package com.rest.playlist.dto;
+
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.mapper.DurationParser;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+/**
+ * body of a song creation or full update, eg :
+ * {
+ * "id": 1000,
+ * "title": "For The Lover That I Lost",
+ * "description": "Live At Abbey Road Studios",
+ * "duration": "3:01",
+ * "artistName": "Sam Smith",
+ * "category": "POP",
+ * "melody": {
+ * "pitch": "Melody Pitch",
+ * "duration": "03:56",
+ * "type": "COLOR"
+ * },
+ * "version": 0
+ * }
+ * the durations are read by DurationParser : "3:01", "PT3M1S" or 181000 (milliseconds)
+ */
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class SongRequest {
+
+    private Long id;
+
+    @NotBlank(message = "titre ne doit pas être null ou vide")
+    @Size(min = 3, max = 50, message = "titre doit être compris entre 3 et 50 caractères")
+    private String title;
+
+    @NotBlank(message = "description ne doit pas être nulle ou vide")
+    @Size(min = 3, max = 50, message = "description doit être compris entre 3 et 50 caractères")
+    private String description;
+
+    @NotBlank(message = "duration ne doit pas être nulle")
+    @Pattern(regexp = DurationParser.FORMAT, message = DurationParser.MESSAGE)
+    private String duration;
+
+    @NotBlank(message = "artistname ne doit pas être null")
+    private String artistName;
+
+    @NotNull(message = "categorie<JAZZ, POP, CLASSICAL> ne doit pas être nulle")
+    private SongCategory category;
+
+    // the melody fields are checked by the service, with the "Melody : ..." messages
+    @NotNull(message = "melody ne doit pas être null")
+    private MelodyRequest melody;
+
+    private Long version;
+}
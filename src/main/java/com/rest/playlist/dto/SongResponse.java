@@ -0,0 +1,36 @@
+package com.rest.playlist.dto;
+
+import com.rest.playlist.enums.SongCategory;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * song as rendered by the API, built from the entity by SongMapper once the melody is loaded.
+ */
+
+@Getter
+public class SongResponse {
+
+    private Long id;
+    private String title;
+    private String description;
+    // in milliseconds
+    private Long duration;
+    private String artistName;
+    private SongCategory category;
+    private MelodyResponse melody;
+    private Long version;
+
+    @Builder
+    private SongResponse(Long id, String title, String description, Long duration, String artistName,
+                         SongCategory category, MelodyResponse melody, Long version) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.duration = duration;
+        this.artistName = artistName;
+        this.category = category;
+        this.melody = melody;
+        this.version = version;
+    }
+}
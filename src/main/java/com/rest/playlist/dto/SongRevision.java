@@ -0,0 +1,56 @@
+package com.rest.playlist.dto;
+
+import com.rest.playlist.enums.ChangeType;
+import com.rest.playlist.enums.SongCategory;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * state of a song at one revision, read from the songs_aud audit table, eg :
+ * {
+ * "revision": 42,
+ * "revisionDate": "2021-12-01T10:15:30.000+00:00",
+ * "changeType": "MOD",
+ * "id": 1000,
+ * "title": "Stay With Me",
+ * "description": "In The Lonely Hour",
+ * "duration": 172000,
+ * "artistName": "Sam Smith",
+ * "category": "POP",
+ * "melodyId": 2000
+ * }
+ * a deletion (DEL) only carries the id.
+ */
+
+@Getter
+public class SongRevision {
+
+    private Long revision;
+    private Date revisionDate;
+    private ChangeType changeType;
+    private Long id;
+    private String title;
+    private String description;
+    // in milliseconds
+    private Long duration;
+    private String artistName;
+    private SongCategory category;
+    private Long melodyId;
+
+    @Builder
+    private SongRevision(Long revision, Date revisionDate, ChangeType changeType, Long id, String title,
+                         String description, Long duration, String artistName, SongCategory category, Long melodyId) {
+        this.revision = revision;
+        this.revisionDate = revisionDate;
+        this.changeType = changeType;
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.duration = duration;
+        this.artistName = artistName;
+        this.category = category;
+        this.melodyId = melodyId;
+    }
+}
@@ -0,0 +1,24 @@
+package com.rest.playlist.dto;
+
+import com.rest.playlist.enums.SuggestionType;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * one autocomplete entry : an artist name or a title as first written, and the number of songs carrying it.
+ */
+
+@Getter
+public class Suggestion {
+
+    private String value;
+    private SuggestionType type;
+    private int songCount;
+
+    @Builder
+    private Suggestion(String value, SuggestionType type, int songCount) {
+        this.value = value;
+        this.type = type;
+        this.songCount = songCount;
+    }
+}
@@ -0,0 +1,10 @@
+package com.rest.playlist.enums;
+
+/**
+ * kind of change recorded by a revision, in the order of the Envers revtype column (0, 1, 2)
+ */
+public enum ChangeType {
+    ADD,
+    MOD,
+    DEL
+}
@@ -0,0 +1,6 @@
+package com.rest.playlist.enums;
+
+public enum SuggestionType {
+    ARTIST,
+    TITLE
+}
@@ -0,0 +1,56 @@
+package com.rest.playlist.mapper;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * lenient reader of the durations clients send, stored in milliseconds :
+ * [h:]m:ss with optional milliseconds ("3:01", "03:56", "1:02:03.5"), ISO-8601 ("PT3M1S")
+ * or a number of milliseconds (181000). The V7 migration converts the existing values with the same rules.
+ */
+public final class DurationParser {
+
+    // usable in a @Pattern constraint, the request is rejected before mapping
+    public static final String FORMAT = "\\s*(\\d+|\\d+:\\d{1,2}(:\\d{1,2})?(\\.\\d{1,3})?|[Pp][Tt](?=\\d)(\\d+[Hh])?(\\d+[Mm])?(\\d+(\\.\\d+)?[Ss])?)\\s*";
+
+    public static final String MESSAGE = "duration : [h:]m:ss, ISO-8601 ou millisecondes attendu";
+
+    private static final Pattern MILLIS = Pattern.compile("\\d+");
+    private static final Pattern CLOCK = Pattern.compile("(\\d+):(\\d{1,2})(?::(\\d{1,2}))?(?:\\.(\\d{1,3}))?");
+    private static final Pattern ISO = Pattern.compile("[Pp][Tt](?=\\d)(\\d+[Hh])?(\\d+[Mm])?(\\d+(\\.\\d+)?[Ss])?");
+
+    private DurationParser() {
+    }
+
+    /**
+     * the duration in milliseconds, null when the value is not one of the accepted formats
+     */
+    public static Long parseMillis(String value) {
+        if (value == null) {
+            return null;
+        }
+        String duration = value.trim();
+        try {
+            if (MILLIS.matcher(duration).matches()) {
+                return Long.parseLong(duration);
+            }
+            Matcher clock = CLOCK.matcher(duration);
+            if (clock.matches()) {
+                long seconds = clock.group(3) == null
+                        ? Long.parseLong(clock.group(1)) * 60 + Long.parseLong(clock.group(2))
+                        : Long.parseLong(clock.group(1)) * 3600 + Long.parseLong(clock.group(2)) * 60 + Long.parseLong(clock.group(3));
+                // ".5" is half a second
+                long millis = clock.group(4) == null ? 0 : Long.parseLong((clock.group(4) + "00").substring(0, 3));
+                return Math.addExact(Math.multiplyExact(seconds, 1000), millis);
+            }
+            if (ISO.matcher(duration).matches()) {
+                return Duration.parse(duration).toMillis();
+            }
+        } catch (NumberFormatException | ArithmeticException | DateTimeParseException e) {
+            return null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.rest.playlist.mapper;
+
+import com.rest.playlist.dto.MelodyRequest;
+import com.rest.playlist.dto.MelodyResponse;
+import com.rest.playlist.dto.SongRequest;
+import com.rest.playlist.dto.SongResponse;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * maps the API DTOs to and from the entities, the implementation SongMapperImpl is generated at compile time
+ * by the MapStruct processor : plain getter and setter calls, no reflection.
+ * A target property left unmapped fails the build, so an entity change can not silently alter the wire format.
+ */
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface SongMapper {
+
+    SongResponse toResponse(Song song);
+
+    MelodyResponse toResponse(Melody melody);
+
+    List<SongResponse> toResponses(List<Song> songs);
+
+    // the audit dates are never taken from a request, they are set by the auditing listener
+    @Mapping(target = "createAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    Song toEntity(SongRequest request);
+
+    @Mapping(target = "createAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    Melody toEntity(MelodyRequest request);
+
+    // a duration in none of the accepted formats maps to null : @Pattern rejects it on single requests,
+    // the batch reports it as a "ne doit pas être nulle" item error
+    default Long toMillis(String duration) {
+        return DurationParser.parseMillis(duration);
+    }
+}
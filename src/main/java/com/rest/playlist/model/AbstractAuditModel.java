@@ -9,6 +9,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.Version;
 import java.io.Serializable;
 import java.time.Instant;
 
@@ -27,6 +28,11 @@ public abstract class AbstractAuditModel implements Serializable {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
+    // optimistic lock : an update carrying a stale version is rejected instead of overwriting a concurrent one
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public Instant getCreateAt() {
         return createAt;
     }
@@ -42,4 +48,12 @@ public abstract class AbstractAuditModel implements Serializable {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,46 @@
+package com.rest.playlist.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+/**
+ * one audited change waiting in the outbox (playlist.audit.mode=async) : written in the transaction of the change,
+ * turned into a revision and an _AUD row by AuditOutboxWriter, then deleted.
+ */
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "audit_outbox")
+public class AuditOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "AUDIT_OUTBOX_SEQ")
+    @SequenceGenerator(name = "AUDIT_OUTBOX_SEQ", sequenceName = "audit_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    // the changes of one transaction share a tx_id and become a single revision
+    @Column(name = "tx_id", nullable = false, length = 36)
+    private String txId;
+
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    // Envers revision type : 0 added, 1 modified, 2 deleted
+    @Column(name = "revtype", nullable = false)
+    private Short revtype;
+
+    @Column(name = "captured_at", nullable = false)
+    private Long capturedAt;
+
+    // audited columns of the entity at commit, as a JSON object, empty for a deletion
+    @Column(name = "payload", length = 4000)
+    private String payload;
+}
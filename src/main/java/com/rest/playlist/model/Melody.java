@@ -1,24 +1,34 @@
 package com.rest.playlist.model;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.rest.playlist.enums.MelodyType;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.envers.Audited;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
 import javax.validation.constraints.Size;
 
 @Getter
 @Setter
 @Entity
 @NoArgsConstructor
-@Table(name = "melody")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Audited
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Table(name = "melody", indexes = @Index(name = "idx_melody_type", columnList = "type"))
 public class Melody extends AbstractAuditModel {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "MELODY_SEQ")
-    @SequenceGenerator(name = "MELODY_SEQ", sequenceName = "melody_seq", allocationSize = 1)
+    @SequenceGenerator(name = "MELODY_SEQ", sequenceName = "melody_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "pitch")
@@ -26,16 +36,14 @@ public class Melody extends AbstractAuditModel {
     @Size(min = 3, max = 50, message = "titre doit être compris entre 3 et 50 caractères")
     private String pitch;
 
-    @Column(name = "duration")
-    @NotBlank(message = "duration ne doit pas être nulle ou vide")
-    private String duration;
+    // in milliseconds
+    @Column(name = "duration_ms", nullable = false)
+    @NotNull(message = "duration ne doit pas être nulle")
+    @PositiveOrZero(message = "duration doit être positive")
+    private Long duration;
 
     @Column(name = "type")
     @Enumerated(EnumType.STRING)
     @NotNull(message = "type melody<COLOR, BLENDS, DIRECTION> ne doit pas être null")
     private MelodyType type;
-
-    @OneToOne(mappedBy = "melody", orphanRemoval = true)
-    @JsonIgnore
-    private Song song;
 }
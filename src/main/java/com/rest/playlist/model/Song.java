@@ -2,22 +2,35 @@ package com.rest.playlist.model;
 
 import com.rest.playlist.enums.SongCategory;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.envers.Audited;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
 import javax.validation.constraints.Size;
 
 
 @Entity
 @Getter
 @Setter
-@Table(name = "songs")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Audited
+@Table(name = "songs", indexes = {
+        @Index(name = "idx_songs_category", columnList = "category"),
+        @Index(name = "idx_songs_artist_name", columnList = "artist_name"),
+        @Index(name = "idx_songs_duration_ms", columnList = "duration_ms")
+})
 public class Song extends AbstractAuditModel {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "SONG_SEQ")
-    @SequenceGenerator(name = "SONG_SEQ", sequenceName = "song_seq", allocationSize = 1)
+    @SequenceGenerator(name = "SONG_SEQ", sequenceName = "song_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "title")
@@ -30,9 +43,11 @@ public class Song extends AbstractAuditModel {
     @Size(min = 3, max = 50, message = "description doit être compris entre 3 et 50 caractères")
     private String description;
 
-    @Column(name = "duration")
-    @NotBlank(message = "duration ne doit pas être nulle")
-    private String duration;
+    // in milliseconds
+    @Column(name = "duration_ms", nullable = false)
+    @NotNull(message = "duration ne doit pas être nulle")
+    @PositiveOrZero(message = "duration doit être positive")
+    private Long duration;
 
     @Column(name = "artist_name")
     @NotBlank(message = "artistname ne doit pas être null")
@@ -44,7 +59,7 @@ public class Song extends AbstractAuditModel {
     private SongCategory category;
 
 
-    @OneToOne(cascade = CascadeType.ALL)
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "melody_id", unique = true, nullable = false)
     @NotNull(message = "melody ne doit pas être null")
     private Melody melody;
@@ -0,0 +1,21 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.model.AuditOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.List;
+
+@Repository
+public interface AuditOutboxRepository extends JpaRepository<AuditOutboxEntry, Long> {
+
+    // oldest entries first, rows locked by another writer are skipped (FOR UPDATE SKIP LOCKED on PostgreSQL)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    List<AuditOutboxEntry> findByOrderByIdAsc(Pageable pageable);
+}
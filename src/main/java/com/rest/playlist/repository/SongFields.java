@@ -0,0 +1,71 @@
+package com.rest.playlist.repository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * sparse fieldset of a list request, eg fields=title,artistName,melody.type :
+ * song attributes and melody attributes (prefixed with "melody."), "melody" alone selects every melody attribute.
+ * Names are the JSON names of the Song and Melody attributes, the audit dates are @JsonIgnore and not selectable.
+ */
+public class SongFields {
+
+    public static final List<String> SONG_ATTRIBUTES = Collections.unmodifiableList(Arrays.asList(
+            "id", "title", "description", "duration", "artistName", "category", "version"));
+    public static final List<String> MELODY_ATTRIBUTES = Collections.unmodifiableList(Arrays.asList(
+            "id", "pitch", "duration", "type", "version"));
+
+    private static final String MELODY = "melody";
+    private static final String MELODY_PREFIX = MELODY + ".";
+
+    private final Set<String> songAttributes;
+    private final Set<String> melodyAttributes;
+
+    private SongFields(Set<String> songAttributes, Set<String> melodyAttributes) {
+        this.songAttributes = Collections.unmodifiableSet(songAttributes);
+        this.melodyAttributes = Collections.unmodifiableSet(melodyAttributes);
+    }
+
+    /**
+     * @throws IllegalArgumentException when the fieldset is empty or names an unknown attribute
+     */
+    public static SongFields parse(String fields) {
+        Set<String> songAttributes = new LinkedHashSet<>();
+        Set<String> melodyAttributes = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (name.equals(MELODY)) {
+                melodyAttributes.addAll(MELODY_ATTRIBUTES);
+            } else if (name.startsWith(MELODY_PREFIX) && MELODY_ATTRIBUTES.contains(name.substring(MELODY_PREFIX.length()))) {
+                melodyAttributes.add(name.substring(MELODY_PREFIX.length()));
+            } else if (SONG_ATTRIBUTES.contains(name)) {
+                songAttributes.add(name);
+            } else {
+                throw new IllegalArgumentException(name);
+            }
+        }
+        if (songAttributes.isEmpty() && melodyAttributes.isEmpty()) {
+            throw new IllegalArgumentException(fields);
+        }
+        return new SongFields(songAttributes, melodyAttributes);
+    }
+
+    public Set<String> getSongAttributes() {
+        return songAttributes;
+    }
+
+    public Set<String> getMelodyAttributes() {
+        return melodyAttributes;
+    }
+
+    // the melody id is the foreign key of the songs table, any other melody attribute needs the join
+    public boolean needsMelodyJoin() {
+        return melodyAttributes.size() > 1 || (melodyAttributes.size() == 1 && !melodyAttributes.contains("id"));
+    }
+}
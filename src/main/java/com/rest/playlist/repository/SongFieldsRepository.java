@@ -0,0 +1,16 @@
+package com.rest.playlist.repository;
+
+import java.util.List;
+
+/**
+ * sparse fieldset queries, implemented by SongFieldsRepositoryImpl
+ */
+public interface SongFieldsRepository {
+
+    /**
+     * selects only the requested columns, joins the melody only when one of its columns is requested or filtered on,
+     * and returns read-only rows ordered by song id : no entity is loaded into the persistence context.
+     * maxResults is ignored when null.
+     */
+    List<SongFieldsRow> findSongFields(SongFields fields, SongFilter filter, Integer maxResults);
+}
@@ -0,0 +1,96 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SongFieldsRepositoryImpl implements SongFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SongFieldsRow> findSongFields(SongFields fields, SongFilter filter, Integer maxResults) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Song> song = query.from(Song.class);
+        Join<Song, Melody> melody = fields.needsMelodyJoin() || filter.getMelodyType() != null
+                ? song.join("melody") : null;
+
+        // the id is always selected : it orders the rows and is the cursor of the next page
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(song.get("id"));
+        for (String attribute : fields.getSongAttributes()) {
+            selections.add(song.get(attribute));
+        }
+        for (String attribute : fields.getMelodyAttributes()) {
+            Path<?> melodyPath = melody != null ? melody : song.get("melody");
+            selections.add(melodyPath.get(attribute));
+        }
+        query.multiselect(selections);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getCategory() != null) {
+            predicates.add(builder.equal(song.get("category"), filter.getCategory()));
+        }
+        if (filter.getArtistName() != null) {
+            predicates.add(builder.equal(song.get("artistName"), filter.getArtistName()));
+        }
+        if (filter.getMelodyType() != null) {
+            predicates.add(builder.equal(melody.get("type"), filter.getMelodyType()));
+        }
+        if (filter.getMinDuration() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(song.get("duration"), filter.getMinDuration()));
+        }
+        if (filter.getMaxDuration() != null) {
+            predicates.add(builder.lessThanOrEqualTo(song.get("duration"), filter.getMaxDuration()));
+        }
+        if (filter.getAfterId() != null) {
+            predicates.add(builder.greaterThan(song.get("id"), filter.getAfterId()));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(builder.asc(song.get("id")));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (maxResults != null) {
+            typedQuery.setMaxResults(maxResults);
+        }
+
+        List<SongFieldsRow> rows = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            rows.add(new SongFieldsRow(tuple.get(0, Long.class), toMap(tuple, fields)));
+        }
+        return rows;
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple, SongFields fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        int index = 1;
+        for (String attribute : fields.getSongAttributes()) {
+            row.put(attribute, tuple.get(index++));
+        }
+        if (!fields.getMelodyAttributes().isEmpty()) {
+            Map<String, Object> melody = new LinkedHashMap<>();
+            for (String attribute : fields.getMelodyAttributes()) {
+                melody.put(attribute, tuple.get(index++));
+            }
+            row.put("melody", melody);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,29 @@
+package com.rest.playlist.repository;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Map;
+
+/**
+ * read-only result of a sparse fieldset query : the requested attributes, rendered as a JSON object,
+ * and the song id, always read since it is the cursor of the next page
+ */
+public class SongFieldsRow {
+
+    private final Long id;
+    private final Map<String, Object> values;
+
+    public SongFieldsRow(Long id, Map<String, Object> values) {
+        this.id = id;
+        this.values = values;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @JsonValue
+    public Map<String, Object> getValues() {
+        return values;
+    }
+}
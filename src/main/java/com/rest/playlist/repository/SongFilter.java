@@ -0,0 +1,33 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * optional criteria of a sparse fieldset query, the same as the finders of SongRepository
+ */
+
+@Getter
+public class SongFilter {
+
+    private SongCategory category;
+    private String artistName;
+    private MelodyType melodyType;
+    private Long afterId;
+    // bounds in milliseconds, both included
+    private Long minDuration;
+    private Long maxDuration;
+
+    @Builder
+    private SongFilter(SongCategory category, String artistName, MelodyType melodyType, Long afterId,
+                       Long minDuration, Long maxDuration) {
+        this.category = category;
+        this.artistName = artistName;
+        this.melodyType = melodyType;
+        this.afterId = afterId;
+        this.minDuration = minDuration;
+        this.maxDuration = maxDuration;
+    }
+}
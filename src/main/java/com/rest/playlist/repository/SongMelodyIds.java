@@ -0,0 +1,11 @@
+package com.rest.playlist.repository;
+
+/**
+ * projection of a song id and the id of its melody, read from the songs.melody_id column without joining melody
+ */
+public interface SongMelodyIds {
+
+    Long getId();
+
+    Long getMelodyId();
+}
@@ -0,0 +1,13 @@
+package com.rest.playlist.repository;
+
+/**
+ * projection of the song columns used by the typeahead index, the melody is not read
+ */
+public interface SongNames {
+
+    Long getId();
+
+    String getTitle();
+
+    String getArtistName();
+}
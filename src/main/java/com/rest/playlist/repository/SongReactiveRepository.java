@@ -0,0 +1,108 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * read-only R2DBC queries on the songs and melody tables, rows are mapped to the JPA entities
+ * so that the reactive endpoints return the same JSON as SongResource.
+ */
+
+@Repository
+@ConditionalOnProperty(name = "playlist.reactive.enabled", havingValue = "true")
+public class SongReactiveRepository {
+
+    private static final String SELECT_SONGS = "select s.id, s.title, s.description, s.duration_ms, s.artist_name, s.category,"
+            + " s.version, s.created_at, s.updated_at,"
+            + " m.id as m_id, m.pitch as m_pitch, m.duration_ms as m_duration_ms, m.type as m_type,"
+            + " m.version as m_version, m.created_at as m_created_at, m.updated_at as m_updated_at"
+            + " from songs s join melody m on m.id = s.melody_id";
+
+    private final DatabaseClient databaseClient;
+
+    public SongReactiveRepository(DatabaseClient reactiveDatabaseClient) {
+        this.databaseClient = reactiveDatabaseClient;
+    }
+
+    public Flux<Song> findAll() {
+        return databaseClient.sql(SELECT_SONGS + " order by s.id")
+                .map((row, metadata) -> toSong(row))
+                .all();
+    }
+
+    public Mono<Song> findById(Long id) {
+        return databaseClient.sql(SELECT_SONGS + " where s.id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> toSong(row))
+                .one();
+    }
+
+    public Flux<Song> findSongsByCategory(SongCategory category) {
+        return databaseClient.sql(SELECT_SONGS + " where s.category = :category order by s.id")
+                .bind("category", category.name())
+                .map((row, metadata) -> toSong(row))
+                .all();
+    }
+
+    public Flux<Song> findSongsByArtistName(String artistName) {
+        return databaseClient.sql(SELECT_SONGS + " where s.artist_name = :artistName order by s.id")
+                .bind("artistName", artistName)
+                .map((row, metadata) -> toSong(row))
+                .all();
+    }
+
+    public Mono<Song> findSongByMelodyId(Long melodyId) {
+        return databaseClient.sql(SELECT_SONGS + " where m.id = :melodyId")
+                .bind("melodyId", melodyId)
+                .map((row, metadata) -> toSong(row))
+                .one();
+    }
+
+    public Flux<Song> findSongsByMelodyType(MelodyType type) {
+        return databaseClient.sql(SELECT_SONGS + " where m.type = :type order by s.id")
+                .bind("type", type.name())
+                .map((row, metadata) -> toSong(row))
+                .all();
+    }
+
+    private static Song toSong(Row row) {
+        Melody melody = new Melody();
+        melody.setId(row.get("m_id", Long.class));
+        melody.setPitch(row.get("m_pitch", String.class));
+        melody.setDuration(row.get("m_duration_ms", Long.class));
+        melody.setType(MelodyType.valueOf(row.get("m_type", String.class)));
+        melody.setVersion(row.get("m_version", Long.class));
+        melody.setCreateAt(toInstant(row.get("m_created_at", LocalDateTime.class)));
+        melody.setUpdatedAt(toInstant(row.get("m_updated_at", LocalDateTime.class)));
+
+        Song song = new Song();
+        song.setId(row.get("id", Long.class));
+        song.setTitle(row.get("title", String.class));
+        song.setDescription(row.get("description", String.class));
+        song.setDuration(row.get("duration_ms", Long.class));
+        song.setArtistName(row.get("artist_name", String.class));
+        song.setCategory(SongCategory.valueOf(row.get("category", String.class)));
+        song.setVersion(row.get("version", Long.class));
+        song.setCreateAt(toInstant(row.get("created_at", LocalDateTime.class)));
+        song.setUpdatedAt(toInstant(row.get("updated_at", LocalDateTime.class)));
+        song.setMelody(melody);
+        return song;
+    }
+
+    // Hibernate writes Instant columns without time zone in the JVM default zone
+    private static Instant toInstant(LocalDateTime timestamp) {
+        return timestamp == null ? null : timestamp.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
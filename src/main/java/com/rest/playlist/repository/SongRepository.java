@@ -3,18 +3,90 @@ package com.rest.playlist.repository;
 import com.rest.playlist.enums.SongCategory;
 import com.rest.playlist.enums.MelodyType;
 import com.rest.playlist.model.Song;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 @EnableJpaAuditing
-public interface SongRepository extends JpaRepository<Song, Long> {
+public interface SongRepository extends JpaRepository<Song, Long>, SongFieldsRepository {
+
+    /*
+     * every query returning songs fetches the melody in the same statement,
+     * otherwise Hibernate issues one extra select per song to resolve the lazy one-to-one
+     */
+
+    @Override
+    @EntityGraph(attributePaths = "melody")
+    List<Song> findAll();
+
+    /*
+     * category and melody type only have three values each, their results are kept in the query cache
+     * and invalidated by Hibernate whenever the songs or melody tables change
+     */
+
+    @EntityGraph(attributePaths = "melody")
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
     List<Song> findSongsByCategory(SongCategory category);
+
+    @EntityGraph(attributePaths = "melody")
     List<Song> findSongsByArtistName(String artistName);
+
+    // filtered on the songs.melody_id foreign key (unique index), not on the joined melody id
+    @Query("select s from Song s join fetch s.melody where s.melody.id = ?1")
     Optional<Song> findSongByMelody_Id(Long id);
+
+    // an inner join lets the database start from the melody type index instead of scanning songs
+    @Query("select s from Song s join fetch s.melody m where m.type = ?1")
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
     List<Song> findSongsByMelody_Type(MelodyType type);
+
+    @Override
+    @EntityGraph(attributePaths = "melody")
+    Optional<Song> findById(Long id);
+
+    // partial updates only touch song columns, the lazy melody is left unloaded
+    Optional<Song> findWithoutMelodyById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "melody")
+    List<Song> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = "melody")
+    List<Song> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // durations in milliseconds, the range is served by idx_songs_duration_ms
+    @EntityGraph(attributePaths = "melody")
+    List<Song> findByIdGreaterThanAndDurationBetweenOrderByIdAsc(Long id, Long minDuration, Long maxDuration, Pageable pageable);
+
+    List<SongNames> findAllProjectedBy();
+
+    /*
+     * set-based deletes : one statement whatever the number of songs, the row count tells which ids existed.
+     * Neither Envers nor the audit outbox listener see them, the caller writes the audit rows (AuditedDeletions).
+     * The melodies go after their songs, songs.melody_id references them. The persistence context is flushed
+     * before and cleared after each DELETE, an entity loaded earlier in the transaction would outlive its row.
+     */
+
+    @Query("select s.id as id, s.melody.id as melodyId from Song s where s.id in ?1")
+    List<SongMelodyIds> findMelodyIdsByIdIn(Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Song s where s.id in ?1")
+    int deleteSongsByIdIn(Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Melody m where m.id in ?1")
+    int deleteMelodiesByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,158 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.dto.MelodyRevision;
+import com.rest.playlist.dto.SongRevision;
+import com.rest.playlist.enums.ChangeType;
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * reads the Envers audit tables with keyset pagination : the history of one song walks the (id, rev) primary key
+ * of songs_aud, the changes of the catalog walk the (rev, id) index (see V6__audit_history_indexes.sql),
+ * the change feed reads whole revisions from revinfo on.
+ * The audit rows are read as plain columns, no audited entity or melody revision is loaded.
+ */
+
+@Repository
+public class SongRevisionRepository {
+
+    private static final String SELECT_REVISIONS = "select s.rev, r.revtstmp, s.revtype, s.id, s.title, s.description,"
+            + " s.duration_ms, s.artist_name, s.category, s.melody_id"
+            + " from songs_aud s join revinfo r on r.rev = s.rev";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public List<SongRevision> findSongRevisions(Long songId, long afterRevision, int maxResults) {
+        Query query = entityManager.createNativeQuery(SELECT_REVISIONS
+                + " where s.id = :id and s.rev > :afterRevision order by s.rev")
+                .setParameter("id", songId)
+                .setParameter("afterRevision", afterRevision)
+                .setMaxResults(maxResults);
+        return toRevisions(query);
+    }
+
+    /**
+     * changes of all the songs after revision sinceRevision, or after song afterSongId within sinceRevision
+     * when a previous page stopped in the middle of that revision, up to revision beforeRevision excluded
+     */
+    public List<SongRevision> findChanges(long sinceRevision, Long afterSongId, long beforeRevision, int maxResults) {
+        String where = afterSongId == null
+                ? " where s.rev > :sinceRevision"
+                : " where s.rev >= :sinceRevision and (s.rev > :sinceRevision or s.id > :afterSongId)";
+        Query query = entityManager.createNativeQuery(SELECT_REVISIONS + where
+                + " and s.rev < :beforeRevision order by s.rev, s.id")
+                .setParameter("sinceRevision", sinceRevision)
+                .setParameter("beforeRevision", beforeRevision)
+                .setMaxResults(maxResults);
+        if (afterSongId != null) {
+            query.setParameter("afterSongId", afterSongId);
+        }
+        return toRevisions(query);
+    }
+
+    /**
+     * the song changes of the revisions in (afterRevision, untilRevision], whole revisions only
+     */
+    public List<SongRevision> findSongChanges(long afterRevision, long untilRevision) {
+        Query query = entityManager.createNativeQuery(SELECT_REVISIONS
+                + " where s.rev > :afterRevision and s.rev <= :untilRevision order by s.rev, s.id")
+                .setParameter("afterRevision", afterRevision)
+                .setParameter("untilRevision", untilRevision);
+        return toRevisions(query);
+    }
+
+    /**
+     * the melody changes of the revisions in (afterRevision, untilRevision], by revision number
+     */
+    public Map<Long, List<MelodyRevision>> findMelodyChanges(long afterRevision, long untilRevision) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery("select m.rev, m.revtype, m.id, m.pitch, m.duration_ms, m.type"
+                + " from melody_aud m where m.rev > :afterRevision and m.rev <= :untilRevision order by m.rev, m.id")
+                .setParameter("afterRevision", afterRevision)
+                .setParameter("untilRevision", untilRevision)
+                .getResultList();
+        Map<Long, List<MelodyRevision>> melodies = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            melodies.computeIfAbsent(((Number) row[0]).longValue(), revision -> new ArrayList<>())
+                    .add(MelodyRevision.builder()
+                            .changeType(ChangeType.values()[((Number) row[1]).intValue()])
+                            .id(((Number) row[2]).longValue())
+                            .pitch((String) row[3])
+                            .duration(row[4] == null ? null : ((Number) row[4]).longValue())
+                            .type(row[5] == null ? null : MelodyType.valueOf((String) row[5]))
+                            .build());
+        }
+        return melodies;
+    }
+
+    /**
+     * numbers and dates of at most maxResults revisions after afterRevision committed at or before the given instant
+     */
+    public Map<Long, Date> findRevisionDates(long afterRevision, Instant committedBefore, int maxResults) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery("select r.rev, r.revtstmp from revinfo r"
+                + " where r.rev > :afterRevision and r.revtstmp <= :timestamp order by r.rev")
+                .setParameter("afterRevision", afterRevision)
+                .setParameter("timestamp", committedBefore.toEpochMilli())
+                .setMaxResults(maxResults)
+                .getResultList();
+        Map<Long, Date> revisions = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            revisions.put(((Number) row[0]).longValue(), new Date(((Number) row[1]).longValue()));
+        }
+        return revisions;
+    }
+
+    /**
+     * last revision committed at or before the given instant, 0 when there is none
+     */
+    public long findLastRevisionAt(Instant instant) {
+        Object revision = entityManager.createNativeQuery("select max(r.rev) from revinfo r where r.revtstmp <= :timestamp")
+                .setParameter("timestamp", instant.toEpochMilli())
+                .getSingleResult();
+        return revision == null ? 0L : ((Number) revision).longValue();
+    }
+
+    /**
+     * first revision created after the given instant, Long.MAX_VALUE when there is none
+     */
+    public long findFirstRevisionAfter(Instant instant) {
+        Object revision = entityManager.createNativeQuery("select min(r.rev) from revinfo r where r.revtstmp > :timestamp")
+                .setParameter("timestamp", instant.toEpochMilli())
+                .getSingleResult();
+        return revision == null ? Long.MAX_VALUE : ((Number) revision).longValue();
+    }
+
+    private static List<SongRevision> toRevisions(Query query) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        List<SongRevision> revisions = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            revisions.add(SongRevision.builder()
+                    .revision(((Number) row[0]).longValue())
+                    .revisionDate(row[1] == null ? null : new Date(((Number) row[1]).longValue()))
+                    .changeType(ChangeType.values()[((Number) row[2]).intValue()])
+                    .id(((Number) row[3]).longValue())
+                    .title((String) row[4])
+                    .description((String) row[5])
+                    .duration(row[6] == null ? null : ((Number) row[6]).longValue())
+                    .artistName((String) row[7])
+                    .category(row[8] == null ? null : SongCategory.valueOf((String) row[8]))
+                    .melodyId(row[9] == null ? null : ((Number) row[9]).longValue())
+                    .build());
+        }
+        return revisions;
+    }
+}
@@ -0,0 +1,71 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.dto.CatalogStats;
+import com.rest.playlist.dto.GroupStats;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * aggregates the catalog with GROUP BY queries : only the counts and duration aggregates leave the database,
+ * the categories and artists are grouped along idx_songs_category and idx_songs_artist_name.
+ */
+
+@Repository
+public class SongStatsRepository {
+
+    private static final String AGGREGATES = "count(s), sum(s.duration), min(s.duration), max(s.duration), avg(s.duration)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // at READ COMMITTED each query would see the commits made since the previous one and the totals could
+    // disagree with the groups : REPEATABLE READ keeps the snapshot of the first query for the four of them
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CatalogStats findStats(int maxArtists) {
+        Object[] total = (Object[]) entityManager.createQuery("select " + AGGREGATES + " from Song s").getSingleResult();
+        return CatalogStats.builder()
+                .total(toStats(null, total, 0))
+                .categories(findGroups(entityManager.createQuery("select s.category, " + AGGREGATES
+                        + " from Song s group by s.category order by s.category")))
+                .melodyTypes(findGroups(entityManager.createQuery("select m.type, " + AGGREGATES
+                        + " from Song s join s.melody m group by m.type order by m.type")))
+                .artists(findGroups(entityManager.createQuery("select s.artistName, " + AGGREGATES
+                        + " from Song s group by s.artistName order by count(s) desc, s.artistName")
+                        .setMaxResults(maxArtists)))
+                .computedAt(new Date())
+                .build();
+    }
+
+    private static List<GroupStats> findGroups(Query query) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        List<GroupStats> groups = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            groups.add(toStats(row[0] == null ? null : row[0].toString(), row, 1));
+        }
+        return groups;
+    }
+
+    private static GroupStats toStats(String key, Object[] row, int offset) {
+        return GroupStats.builder()
+                .key(key)
+                .songCount(((Number) row[offset]).longValue())
+                .totalDuration(toLong(row[offset + 1]))
+                .minDuration(toLong(row[offset + 2]))
+                .maxDuration(toLong(row[offset + 3]))
+                .averageDuration(row[offset + 4] == null ? null : Math.round(((Number) row[offset + 4]).doubleValue()))
+                .build();
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,181 @@
+package com.rest.playlist.search;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.event.SongChangedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * inverted index kept in memory for databases without full-text search (H2 in the tests).
+ * It is loaded from the songs table at startup and then follows the committed changes of this instance only,
+ * the weights mirror the Postgres engine : title 3, artist name 2, description 1.
+ */
+
+@Component
+@ConditionalOnProperty(name = "playlist.search.engine", havingValue = "memory")
+public class InMemorySongSearchEngine implements SongSearchEngine {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int ARTIST_NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final SongRepository songRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> song id -> best weight of the term in the song
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, IndexedSong> songs = new HashMap<>();
+
+    public InMemorySongSearchEngine(SongRepository songRepository) {
+        this.songRepository = songRepository;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void rebuild() {
+        List<Song> allSongs = songRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            songs.clear();
+            allSongs.forEach(song -> index(SongChangedEvent.saved(song)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSongChanged(SongChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            IndexedSong previous = remove(event.getSongId());
+            if (event.getType() == SongChangedEvent.Type.SAVED) {
+                if (event.getMelodyType() == null && previous != null) {
+                    index(event, previous.melodyType);
+                } else {
+                    index(event);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public SongSearchHits search(SongSearchQuery query) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            List<String> terms = query.getTerms();
+            for (int i = 0; i < terms.size(); i++) {
+                Map<Long, Integer> termScores = i == terms.size() - 1 ? prefixMatches(terms.get(i)) : exactMatches(terms.get(i));
+                scores = scores == null ? termScores : intersect(scores, termScores);
+            }
+
+            List<Long> matches = new ArrayList<>();
+            if (scores != null) {
+                for (Long songId : scores.keySet()) {
+                    IndexedSong song = songs.get(songId);
+                    if ((query.getCategory() == null || query.getCategory() == song.category)
+                            && (query.getMelodyType() == null || query.getMelodyType() == song.melodyType)) {
+                        matches.add(songId);
+                    }
+                }
+            }
+            Map<Long, Integer> finalScores = scores;
+            matches.sort(Comparator.<Long>comparingInt(finalScores::get).reversed().thenComparing(Comparator.naturalOrder()));
+
+            int from = Math.min(query.getOffset(), matches.size());
+            int to = Math.min(from + query.getLimit(), matches.size());
+            return new SongSearchHits(new ArrayList<>(matches.subList(from, to)), matches.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> exactMatches(String term) {
+        Map<Long, Integer> matches = postings.get(term);
+        return matches == null ? new HashMap<>() : new HashMap<>(matches);
+    }
+
+    private Map<Long, Integer> prefixMatches(String prefix) {
+        Map<Long, Integer> matches = new HashMap<>();
+        for (Map<Long, Integer> termMatches : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            termMatches.forEach((songId, weight) -> matches.merge(songId, weight, Math::max));
+        }
+        return matches;
+    }
+
+    private static Map<Long, Integer> intersect(Map<Long, Integer> scores, Map<Long, Integer> termScores) {
+        Map<Long, Integer> intersection = new HashMap<>();
+        scores.forEach((songId, score) -> {
+            Integer termScore = termScores.get(songId);
+            if (termScore != null) {
+                intersection.put(songId, score + termScore);
+            }
+        });
+        return intersection;
+    }
+
+    private void index(SongChangedEvent event) {
+        index(event, event.getMelodyType());
+    }
+
+    private void index(SongChangedEvent event, MelodyType melodyType) {
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, event.getTitle(), TITLE_WEIGHT);
+        addTerms(weights, event.getArtistName(), ARTIST_NAME_WEIGHT);
+        addTerms(weights, event.getDescription(), DESCRIPTION_WEIGHT);
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(event.getSongId(), weight));
+        songs.put(event.getSongId(), new IndexedSong(weights.keySet(), event.getCategory(), melodyType));
+    }
+
+    private IndexedSong remove(Long songId) {
+        IndexedSong previous = songs.remove(songId);
+        if (previous != null) {
+            for (String term : previous.terms) {
+                Map<Long, Integer> termPostings = postings.get(term);
+                termPostings.remove(songId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        return previous;
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String term : SearchTokenizer.tokenize(text)) {
+            weights.merge(term, weight, Math::max);
+        }
+    }
+
+    private static final class IndexedSong {
+        private final Set<String> terms;
+        private final SongCategory category;
+        private final MelodyType melodyType;
+
+        private IndexedSong(Set<String> terms, SongCategory category, MelodyType melodyType) {
+            this.terms = new HashSet<>(terms);
+            this.category = category;
+            this.melodyType = melodyType;
+        }
+    }
+}
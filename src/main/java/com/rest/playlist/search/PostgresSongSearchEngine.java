@@ -0,0 +1,86 @@
+package com.rest.playlist.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * searches the songs.search_vector column maintained by Postgres (see V4__songs_full_text_search.sql) :
+ * title, artist name and description are weighted A, B and C and the matches are ordered by ts_rank.
+ * The GIN index on search_vector also serves the prefix term (term:*).
+ */
+
+@Component
+@ConditionalOnProperty(name = "playlist.search.engine", havingValue = "postgres")
+public class PostgresSongSearchEngine implements SongSearchEngine {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public SongSearchHits search(SongSearchQuery query) {
+        // the window count comes with the page in a single statement
+        Query pageQuery = createQuery("select s.id, count(*) over () as total", query,
+                " order by ts_rank(s.search_vector, to_tsquery('simple', :query)) desc, s.id limit :limit offset :offset")
+                .setParameter("limit", query.getLimit())
+                .setParameter("offset", query.getOffset());
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = pageQuery.getResultList();
+        List<Long> songIds = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            songIds.add(((Number) row[0]).longValue());
+        }
+
+        long total;
+        if (!rows.isEmpty()) {
+            total = ((Number) rows.get(0)[1]).longValue();
+        } else if (query.getOffset() == 0) {
+            total = 0;
+        } else {
+            // a page past the last match has no row to carry the count
+            total = ((Number) createQuery("select count(*)", query, "").getSingleResult()).longValue();
+        }
+        return new SongSearchHits(songIds, total);
+    }
+
+    private Query createQuery(String select, SongSearchQuery query, String suffix) {
+        StringBuilder sql = new StringBuilder(select)
+                .append(" from songs s join melody m on m.id = s.melody_id")
+                .append(" where s.search_vector @@ to_tsquery('simple', :query)");
+        if (query.getCategory() != null) {
+            sql.append(" and s.category = :category");
+        }
+        if (query.getMelodyType() != null) {
+            sql.append(" and m.type = :type");
+        }
+        sql.append(suffix);
+
+        Query nativeQuery = entityManager.createNativeQuery(sql.toString())
+                .setParameter("query", toTsQuery(query.getTerms()));
+        if (query.getCategory() != null) {
+            nativeQuery.setParameter("category", query.getCategory().name());
+        }
+        if (query.getMelodyType() != null) {
+            nativeQuery.setParameter("type", query.getMelodyType().name());
+        }
+        return nativeQuery;
+    }
+
+    // terms only hold letters and digits (SearchTokenizer), they cannot carry tsquery operators
+    static String toTsQuery(List<String> terms) {
+        StringBuilder tsQuery = new StringBuilder();
+        for (int i = 0; i < terms.size(); i++) {
+            if (i > 0) {
+                tsQuery.append(" & ");
+            }
+            tsQuery.append(terms.get(i));
+        }
+        return tsQuery.append(":*").toString();
+    }
+}
@@ -0,0 +1,10 @@
+package com.rest.playlist.search;
+
+/**
+ * ranked full-text search over title, description and artist name,
+ * selected with playlist.search.engine : postgres (tsvector) or memory (inverted index, for H2).
+ */
+public interface SongSearchEngine {
+
+    SongSearchHits search(SongSearchQuery query);
+}
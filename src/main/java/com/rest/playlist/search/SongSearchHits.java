@@ -0,0 +1,21 @@
+package com.rest.playlist.search;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * ids of the requested page of matching songs, best match first, and the number of matching songs
+ */
+
+@Getter
+public class SongSearchHits {
+
+    private final List<Long> songIds;
+    private final long total;
+
+    public SongSearchHits(List<Long> songIds, long total) {
+        this.songIds = songIds;
+        this.total = total;
+    }
+}
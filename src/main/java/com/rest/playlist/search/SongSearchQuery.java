@@ -0,0 +1,33 @@
+package com.rest.playlist.search;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * a full-text search : every term must match title, description or artist name,
+ * the last term also matches as a prefix so that the query can be typed incrementally.
+ * category and melodyType are optional filters.
+ */
+
+@Getter
+public class SongSearchQuery {
+
+    private List<String> terms;
+    private SongCategory category;
+    private MelodyType melodyType;
+    private int offset;
+    private int limit;
+
+    @Builder
+    private SongSearchQuery(List<String> terms, SongCategory category, MelodyType melodyType, int offset, int limit) {
+        this.terms = terms;
+        this.category = category;
+        this.melodyType = melodyType;
+        this.offset = offset;
+        this.limit = limit;
+    }
+}
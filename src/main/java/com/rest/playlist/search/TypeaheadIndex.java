@@ -0,0 +1,222 @@
+package com.rest.playlist.search;
+
+import com.rest.playlist.dto.Suggestion;
+import com.rest.playlist.enums.SuggestionType;
+import com.rest.playlist.repository.SongNames;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.event.SongChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * prefix index of the artist names and titles for autocomplete.
+ * Values are normalized (lower case, no accents, single spaces) and kept sorted with the ids of their songs,
+ * a lookup reads the first entries following the prefix and never touches the database.
+ * It is loaded at startup, follows the committed changes of this instance and holds at most
+ * playlist.typeahead.max-entries values of at most playlist.typeahead.max-length characters
+ * and the keys of at most playlist.typeahead.max-songs songs (about 80 bytes each, to unindex a changed song).
+ * An entry only counts its songs, so its size does not grow with them : the heap is bounded by the two caps.
+ */
+
+@Component
+public class TypeaheadIndex {
+    private static final Logger log = LoggerFactory.getLogger(TypeaheadIndex.class);
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final SongRepository songRepository;
+    private final int maxEntries;
+    private final int maxLength;
+    private final int maxSongs;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<SuggestionType, NavigableMap<String, Entry>> entries = new HashMap<>();
+    // song id -> artist name and title keys, to unindex a song when it changes
+    private final Map<Long, String[]> keysBySong = new HashMap<>();
+    private int size;
+    private boolean full;
+    private boolean songsFull;
+
+    public TypeaheadIndex(SongRepository songRepository,
+                          @Value("${playlist.typeahead.max-entries:100000}") int maxEntries,
+                          @Value("${playlist.typeahead.max-length:100}") int maxLength,
+                          @Value("${playlist.typeahead.max-songs:1000000}") int maxSongs) {
+        this.songRepository = songRepository;
+        this.maxEntries = maxEntries;
+        this.maxLength = maxLength;
+        this.maxSongs = maxSongs;
+        for (SuggestionType type : SuggestionType.values()) {
+            entries.put(type, new TreeMap<>());
+        }
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void rebuild() {
+        List<SongNames> songs = songRepository.findAllProjectedBy();
+        lock.writeLock().lock();
+        try {
+            entries.values().forEach(Map::clear);
+            keysBySong.clear();
+            size = 0;
+            full = false;
+            songsFull = false;
+            // in id order, the oldest songs are the ones indexed once max-songs is reached
+            List<SongNames> sortedSongs = new ArrayList<>(songs);
+            sortedSongs.sort(Comparator.comparing(SongNames::getId));
+            sortedSongs.forEach(song -> add(song.getId(), song.getArtistName(), song.getTitle()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("typeahead index loaded with {} values from {} songs", size, songs.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSongChanged(SongChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.getSongId());
+            if (event.getType() == SongChangedEvent.Type.SAVED) {
+                add(event.getSongId(), event.getArtistName(), event.getTitle());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * suggestions starting with the prefix in alphabetical order, artist names first
+     */
+    public List<Suggestion> suggest(String prefix, SuggestionType type, int limit) {
+        String key = normalize(prefix);
+        List<Suggestion> suggestions = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            for (SuggestionType searchedType : SuggestionType.values()) {
+                if (type != null && type != searchedType) {
+                    continue;
+                }
+                for (Entry entry : entries.get(searchedType).tailMap(key, true).values()) {
+                    if (suggestions.size() == limit || !entry.key.startsWith(key)) {
+                        break;
+                    }
+                    suggestions.add(Suggestion.builder()
+                            .value(entry.value)
+                            .type(searchedType)
+                            .songCount(entry.songCount)
+                            .build());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String normalize(String text) {
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        normalized = SPACES.matcher(normalized.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        return normalized.length() > maxLength ? normalized.substring(0, maxLength) : normalized;
+    }
+
+    private void add(Long songId, String artistName, String title) {
+        if (keysBySong.size() >= maxSongs) {
+            if (!songsFull) {
+                songsFull = true;
+                log.warn("typeahead index is full ({} songs), new songs are not suggested", maxSongs);
+            }
+            return;
+        }
+        String artistKey = add(SuggestionType.ARTIST, artistName);
+        String titleKey = add(SuggestionType.TITLE, title);
+        if (artistKey != null || titleKey != null) {
+            keysBySong.put(songId, new String[]{artistKey, titleKey});
+        }
+    }
+
+    private String add(SuggestionType type, String value) {
+        if (value == null) {
+            return null;
+        }
+        String key = normalize(value);
+        if (key.isEmpty()) {
+            return null;
+        }
+        NavigableMap<String, Entry> typeEntries = entries.get(type);
+        Entry entry = typeEntries.get(key);
+        if (entry == null) {
+            if (size >= maxEntries) {
+                if (!full) {
+                    full = true;
+                    log.warn("typeahead index is full ({} values), new artist names and titles are not suggested", maxEntries);
+                }
+                return null;
+            }
+            entry = new Entry(key, value.trim());
+            typeEntries.put(key, entry);
+            size++;
+        }
+        entry.songCount++;
+        // the key of the entry is shared instead of keeping the copy normalized for this song
+        return entry.key;
+    }
+
+    private void remove(Long songId) {
+        String[] keys = keysBySong.remove(songId);
+        if (keys == null) {
+            return;
+        }
+        remove(SuggestionType.ARTIST, keys[0]);
+        remove(SuggestionType.TITLE, keys[1]);
+    }
+
+    private void remove(SuggestionType type, String key) {
+        if (key == null) {
+            return;
+        }
+        NavigableMap<String, Entry> typeEntries = entries.get(type);
+        Entry entry = typeEntries.get(key);
+        if (entry != null && --entry.songCount == 0) {
+            typeEntries.remove(key);
+            size--;
+        }
+    }
+
+    // keysBySong holds a song at most once, counting its songs is enough to know when an entry is empty
+    private static final class Entry {
+        private final String key;
+        private final String value;
+        private int songCount;
+
+        private Entry(String key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * immutable copy of a song and its melody held by the songs cache. Every hit builds a new detached Song,
+ * so a caller changing the returned entity never changes what the next reader gets.
+ */
+final class CachedSong implements Serializable {
+
+    private final Long id;
+    private final Long version;
+    private final Instant createAt;
+    private final Instant updatedAt;
+    private final String title;
+    private final String description;
+    private final Long duration;
+    private final String artistName;
+    private final SongCategory category;
+
+    private final Long melodyId;
+    private final Long melodyVersion;
+    private final Instant melodyCreateAt;
+    private final Instant melodyUpdatedAt;
+    private final String pitch;
+    private final Long melodyDuration;
+    private final MelodyType melodyType;
+
+    private CachedSong(Song song) {
+        this.id = song.getId();
+        this.version = song.getVersion();
+        this.createAt = song.getCreateAt();
+        this.updatedAt = song.getUpdatedAt();
+        this.title = song.getTitle();
+        this.description = song.getDescription();
+        this.duration = song.getDuration();
+        this.artistName = song.getArtistName();
+        this.category = song.getCategory();
+
+        Melody melody = song.getMelody();
+        this.melodyId = melody.getId();
+        this.melodyVersion = melody.getVersion();
+        this.melodyCreateAt = melody.getCreateAt();
+        this.melodyUpdatedAt = melody.getUpdatedAt();
+        this.pitch = melody.getPitch();
+        this.melodyDuration = melody.getDuration();
+        this.melodyType = melody.getType();
+    }
+
+    static CachedSong of(Song song) {
+        return new CachedSong(song);
+    }
+
+    Song toSong() {
+        Melody melody = new Melody();
+        melody.setId(melodyId);
+        melody.setVersion(melodyVersion);
+        melody.setCreateAt(melodyCreateAt);
+        melody.setUpdatedAt(melodyUpdatedAt);
+        melody.setPitch(pitch);
+        melody.setDuration(melodyDuration);
+        melody.setType(melodyType);
+
+        Song song = new Song();
+        song.setId(id);
+        song.setVersion(version);
+        song.setCreateAt(createAt);
+        song.setUpdatedAt(updatedAt);
+        song.setTitle(title);
+        song.setDescription(description);
+        song.setDuration(duration);
+        song.setArtistName(artistName);
+        song.setCategory(category);
+        song.setMelody(melody);
+        return song;
+    }
+}
@@ -0,0 +1,11 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.dto.BatchResult;
+import com.rest.playlist.model.Song;
+
+import java.util.Iterator;
+
+public interface ISongBatchService {
+
+    BatchResult createSongs(Iterator<Song> songs);
+}
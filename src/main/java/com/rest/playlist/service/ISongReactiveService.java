@@ -0,0 +1,20 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.model.Song;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ISongReactiveService {
+
+    Flux<Song> getAllSongs();
+
+    Flux<Song> getSongsByCategory(String category);
+
+    Flux<Song> getSongsByArtistName(String artistName);
+
+    Mono<Song> getSongsByMelodyId(Long id);
+
+    Flux<Song> getSongsByMelodyType(String type);
+
+    Mono<Song> getSongById(Long id);
+}
@@ -0,0 +1,20 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.dto.CatalogChange;
+import com.rest.playlist.dto.CursorPage;
+import com.rest.playlist.dto.SongRevision;
+
+import java.util.List;
+
+public interface ISongRevisionService {
+
+    CursorPage<SongRevision> getSongRevisions(Long id, Long cursor, Integer size);
+
+    CursorPage<SongRevision> getChanges(String since, Long after, Integer size);
+
+    long getRevision(String since);
+
+    long getLastCommittedRevision();
+
+    List<CatalogChange> getCatalogChanges(long afterRevision, int maxRevisions);
+}
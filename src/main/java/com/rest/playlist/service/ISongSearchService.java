@@ -0,0 +1,14 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.dto.SearchPage;
+import com.rest.playlist.dto.Suggestion;
+import com.rest.playlist.model.Song;
+
+import java.util.List;
+
+public interface ISongSearchService {
+
+    SearchPage<Song> searchSongs(String q, String category, String type, Integer page, Integer size);
+
+    List<Suggestion> autocomplete(String prefix, String type, Integer limit);
+}
@@ -1,6 +1,9 @@
 package com.rest.playlist.service;
 
+import com.rest.playlist.dto.CursorPage;
+import com.rest.playlist.dto.SongPatch;
 import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongFieldsRow;
 
 import java.util.List;
 
@@ -8,6 +11,14 @@ public interface ISongService {
 
     List<Song> getAllSongs();
 
+    CursorPage<Song> getSongsPage(Long cursor, Integer size);
+
+    CursorPage<Song> getSongsPage(Long cursor, Integer size, String minDuration, String maxDuration);
+
+    List<SongFieldsRow> getSongFields(String fields, String category, String artistName, String type);
+
+    CursorPage<SongFieldsRow> getSongFieldsPage(String fields, Long cursor, Integer size, String minDuration, String maxDuration);
+
     List<Song> getSongsByCategory(String category);
 
     List<Song> getSongsByArtistName(String artistName);
@@ -18,9 +29,16 @@ public interface ISongService {
 
     Song getSongById(Long id);
 
+    // reads the stored row, never the lookup cache : the If-Match check of a write compares against it
+    Song getCurrentSong(Long id);
+
     Song createSong(Song song);
 
     Song updateSong(Song song);
 
+    void patchSong(Long id, SongPatch patch);
+
     void deleteSongById(Long id);
+
+    void deleteSongsByIds(List<Long> ids);
 }
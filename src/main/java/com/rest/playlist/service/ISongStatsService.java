@@ -0,0 +1,8 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.dto.CatalogStats;
+
+public interface ISongStatsService {
+
+    CatalogStats getStats(Integer artists);
+}
@@ -0,0 +1,164 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.dto.BatchItemError;
+import com.rest.playlist.dto.BatchResult;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.event.SongChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * creates songs in chunks : every chunk is persisted in its own transaction,
+ * the inserts are sent with JDBC batching and the persistence context is cleared
+ * between chunks so memory stays flat whatever the size of the batch.
+ * Chunks already committed stay committed : a chunk that fails is rolled back alone and each of its items
+ * is reported as an error, an item the source cannot read (eg. a malformed NDJSON line) ends the batch
+ * and is reported the same way, so created always counts the songs actually stored.
+ */
+
+@Service
+public class SongBatchServiceImpl implements ISongBatchService {
+    private static final Logger log = LoggerFactory.getLogger(SongBatchServiceImpl.class);
+
+    private final SongRepository songRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SongBatchServiceImpl(SongRepository songRepository,
+                                Validator validator,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${playlist.batch.chunk-size:500}") int chunkSize) {
+        this.songRepository = songRepository;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public BatchResult createSongs(Iterator<Song> songs) {
+        List<BatchItemError> errors = new ArrayList<>();
+        List<Song> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+        int received = 0;
+        int created = 0;
+
+        while (true) {
+            Song song;
+            try {
+                if (!songs.hasNext()) {
+                    break;
+                }
+                song = songs.next();
+            } catch (RuntimeException e) {
+                errors.add(BatchItemError.builder()
+                        .index(received)
+                        .message("élément illisible, lot arrêté : " + e.getMessage())
+                        .build());
+                received++;
+                break;
+            }
+            List<BatchItemError> songErrors = validate(received, song);
+            if (songErrors.isEmpty()) {
+                chunk.add(song);
+                chunkIndexes.add(received);
+            } else {
+                errors.addAll(songErrors);
+            }
+            received++;
+
+            if (chunk.size() == chunkSize) {
+                created += persist(chunk, chunkIndexes, errors);
+                chunk.clear();
+                chunkIndexes.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += persist(chunk, chunkIndexes, errors);
+        }
+
+        log.info("batch of {} songs : {} created, {} errors", received, created, errors.size());
+        return BatchResult.builder()
+                .received(received)
+                .created(created)
+                .errors(errors)
+                .build();
+    }
+
+    private int persist(List<Song> chunk, List<Integer> indexes, List<BatchItemError> errors) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                songRepository.saveAll(chunk);
+                chunk.forEach(song -> eventPublisher.publishEvent(SongChangedEvent.saved(song)));
+                entityManager.flush();
+                entityManager.clear();
+            });
+            return chunk.size();
+        } catch (RuntimeException e) {
+            log.warn("chunk of {} songs from index {} rolled back", chunk.size(), indexes.get(0), e);
+            String message = "non enregistré, lot de " + chunk.size() + " chansons annulé : "
+                    + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (Integer index : indexes) {
+                errors.add(BatchItemError.builder()
+                        .index(index)
+                        .message(message)
+                        .build());
+            }
+            return 0;
+        }
+    }
+
+    private List<BatchItemError> validate(int index, Song song) {
+        List<BatchItemError> errors = new ArrayList<>();
+        if (song == null) {
+            errors.add(BatchItemError.builder()
+                    .index(index)
+                    .message("song ne doit pas être null")
+                    .build());
+            return errors;
+        }
+        // ids and versions are always generated, a batch never updates existing songs
+        song.setId(null);
+        song.setVersion(null);
+        addErrors(errors, index, "", validator.validate(song));
+        if (song.getMelody() != null) {
+            song.getMelody().setId(null);
+            song.getMelody().setVersion(null);
+            addErrors(errors, index, "melody.", validator.validate(song.getMelody()));
+        }
+        return errors;
+    }
+
+    private static <T> void addErrors(List<BatchItemError> errors, int index, String prefix, Set<ConstraintViolation<T>> violations) {
+        for (ConstraintViolation<T> violation : violations) {
+            errors.add(BatchItemError.builder()
+                    .index(index)
+                    .field(prefix + violation.getPropertyPath())
+                    .message(violation.getConstraintDescriptor().getAnnotation().annotationType().getSimpleName()
+                            + ": " + violation.getMessage())
+                    .build());
+        }
+    }
+}
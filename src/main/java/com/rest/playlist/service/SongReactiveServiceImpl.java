@@ -0,0 +1,67 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongReactiveRepository;
+import com.rest.playlist.web.exception.ResourceNotFoundException;
+import org.apache.commons.lang3.EnumUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * reactive reads with the same lookups and error messages as SongServiceImpl, writes stay on SongServiceImpl
+ */
+
+@Service
+@ConditionalOnProperty(name = "playlist.reactive.enabled", havingValue = "true")
+public class SongReactiveServiceImpl implements ISongReactiveService {
+
+    private final SongReactiveRepository songReactiveRepository;
+
+    public SongReactiveServiceImpl(SongReactiveRepository songReactiveRepository) {
+        this.songReactiveRepository = songReactiveRepository;
+    }
+
+    @Override
+    public Flux<Song> getAllSongs() {
+        return songReactiveRepository.findAll();
+    }
+
+    @Override
+    public Flux<Song> getSongsByCategory(String category) {
+        SongCategory searchedCategory = EnumUtils.getEnumIgnoreCase(SongCategory.class, category);
+        if (searchedCategory == null) {
+            return Flux.error(new ResourceNotFoundException("Not found Category with value = " + category));
+        }
+        return songReactiveRepository.findSongsByCategory(searchedCategory);
+    }
+
+    @Override
+    public Flux<Song> getSongsByArtistName(String artistName) {
+        return songReactiveRepository.findSongsByArtistName(artistName);
+    }
+
+    @Override
+    public Mono<Song> getSongsByMelodyId(Long id) {
+        return songReactiveRepository.findSongByMelodyId(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Not found song with melody id = " + id)));
+    }
+
+    @Override
+    public Flux<Song> getSongsByMelodyType(String type) {
+        MelodyType searchedType = EnumUtils.getEnumIgnoreCase(MelodyType.class, type);
+        if (searchedType == null) {
+            return Flux.error(new ResourceNotFoundException("Not found type Melody with value = " + type));
+        }
+        return songReactiveRepository.findSongsByMelodyType(searchedType);
+    }
+
+    @Override
+    public Mono<Song> getSongById(Long id) {
+        return songReactiveRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Not found song with id = " + id)));
+    }
+}
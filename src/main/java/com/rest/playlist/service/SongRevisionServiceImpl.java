@@ -0,0 +1,168 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.dto.CatalogChange;
+import com.rest.playlist.dto.CursorPage;
+import com.rest.playlist.dto.MelodyRevision;
+import com.rest.playlist.dto.SongRevision;
+import com.rest.playlist.repository.SongRevisionRepository;
+import com.rest.playlist.web.exception.FormatNotValidException;
+import com.rest.playlist.web.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * history of the songs read from the Envers audit tables. Pages are cut on revision numbers :
+ * the nextCursor of a page is the revision of its last row, so a sync job only pulls the changes
+ * made since its last call. With playlist.audit.mode=async the last changes appear once the audit writer ran.
+ * The change feeds (/changes pages and the SSE stream) stop before the first revision younger than
+ * playlist.change-feed.commit-lag-ms : a revision number is taken just before the commit, a transaction
+ * committing late must not be skipped by a consumer already past it.
+ * This is a heuristic, not a guarantee : revtstmp is stamped when the revision is created, not when it commits,
+ * so a transaction committing more than commit-lag-ms after its revision was created is skipped for good
+ * by the consumers already past it. The lag has to stay above the longest write transaction.
+ */
+
+@Service
+@Transactional(readOnly = true)
+public class SongRevisionServiceImpl implements ISongRevisionService {
+
+    private final SongRevisionRepository songRevisionRepository;
+    private final long commitLagMillis;
+
+    public SongRevisionServiceImpl(SongRevisionRepository songRevisionRepository,
+                                   @Value("${playlist.change-feed.commit-lag-ms:1000}") long commitLagMillis) {
+        this.songRevisionRepository = songRevisionRepository;
+        this.commitLagMillis = commitLagMillis;
+    }
+
+    @Override
+    public CursorPage<SongRevision> getSongRevisions(Long id, Long cursor, Integer size) {
+        int pageSize = pageSize(size);
+        List<SongRevision> revisions = songRevisionRepository.findSongRevisions(id, cursor == null ? 0L : cursor, pageSize + 1);
+        if (revisions.isEmpty() && cursor == null) {
+            throw new ResourceNotFoundException("Not found revisions for song with id = " + id);
+        }
+        return page(revisions, pageSize);
+    }
+
+    @Override
+    public CursorPage<SongRevision> getChanges(String since, Long after, Integer size) {
+        int pageSize = pageSize(size);
+        long sinceRevision = parseSince(since);
+        long beforeRevision = songRevisionRepository.findFirstRevisionAfter(committedBefore());
+        List<SongRevision> changes = songRevisionRepository.findChanges(sinceRevision, after, beforeRevision, pageSize + 1);
+        return page(changes, pageSize);
+    }
+
+    // without since the feed starts from now
+    @Override
+    public long getRevision(String since) {
+        return since == null ? getLastCommittedRevision() : parseSince(since);
+    }
+
+    @Override
+    public long getLastCommittedRevision() {
+        return songRevisionRepository.findLastRevisionAt(committedBefore());
+    }
+
+    @Override
+    public List<CatalogChange> getCatalogChanges(long afterRevision, int maxRevisions) {
+        Map<Long, Date> revisionDates = songRevisionRepository.findRevisionDates(afterRevision, committedBefore(), maxRevisions);
+        if (revisionDates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long untilRevision = 0L;
+        Map<Long, List<SongRevision>> songs = new LinkedHashMap<>();
+        for (Long revision : revisionDates.keySet()) {
+            songs.put(revision, new ArrayList<>());
+            untilRevision = revision;
+        }
+        // a visible revision younger than the commit lag stops the read : the later ones wait for the next read
+        long firstUnstableRevision = Long.MAX_VALUE;
+        for (SongRevision song : songRevisionRepository.findSongChanges(afterRevision, untilRevision)) {
+            List<SongRevision> revisionSongs = songs.get(song.getRevision());
+            if (revisionSongs != null) {
+                revisionSongs.add(song);
+            } else {
+                firstUnstableRevision = Math.min(firstUnstableRevision, song.getRevision());
+            }
+        }
+        Map<Long, List<MelodyRevision>> melodies = songRevisionRepository.findMelodyChanges(afterRevision, untilRevision);
+        for (Long revision : melodies.keySet()) {
+            if (!revisionDates.containsKey(revision)) {
+                firstUnstableRevision = Math.min(firstUnstableRevision, revision);
+            }
+        }
+
+        List<CatalogChange> changes = new ArrayList<>(revisionDates.size());
+        for (Map.Entry<Long, Date> revision : revisionDates.entrySet()) {
+            if (revision.getKey() > firstUnstableRevision) {
+                break;
+            }
+            changes.add(CatalogChange.builder()
+                    .revision(revision.getKey())
+                    .revisionDate(revision.getValue())
+                    .songs(songs.get(revision.getKey()))
+                    .melodies(melodies.getOrDefault(revision.getKey(), Collections.emptyList()))
+                    .build());
+        }
+        return changes;
+    }
+
+    private Instant committedBefore() {
+        return Instant.now().minusMillis(commitLagMillis);
+    }
+
+    /**
+     * since is a revision number, or an ISO-8601 instant standing for the last revision committed at that time
+     */
+    private long parseSince(String since) {
+        if (since == null || since.trim().isEmpty()) {
+            throw new FormatNotValidException("since ne doit pas être vide");
+        }
+        String value = since.trim();
+        if (value.chars().allMatch(Character::isDigit)) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new FormatNotValidException("since : numéro de révision trop grand = " + since);
+            }
+        }
+        try {
+            return songRevisionRepository.findLastRevisionAt(Instant.parse(value));
+        } catch (DateTimeParseException e) {
+            throw new FormatNotValidException("since : numéro de révision ou date ISO-8601 attendu = " + since);
+        }
+    }
+
+    private static int pageSize(Integer size) {
+        int pageSize = size == null ? SongServiceImpl.DEFAULT_PAGE_SIZE : Math.min(size, SongServiceImpl.MAX_PAGE_SIZE);
+        if (pageSize < 1) {
+            throw new FormatNotValidException("size doit être supérieur à 0");
+        }
+        return pageSize;
+    }
+
+    // one extra row tells whether a next page exists without a count query
+    private static CursorPage<SongRevision> page(List<SongRevision> revisions, int pageSize) {
+        Long nextCursor = null;
+        if (revisions.size() > pageSize) {
+            revisions = new ArrayList<>(revisions.subList(0, pageSize));
+            nextCursor = revisions.get(pageSize - 1).getRevision();
+        }
+        return CursorPage.<SongRevision>builder()
+                .content(revisions)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
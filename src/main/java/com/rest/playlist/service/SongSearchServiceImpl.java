@@ -0,0 +1,131 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.dto.SearchPage;
+import com.rest.playlist.dto.Suggestion;
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.enums.SuggestionType;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.search.SearchTokenizer;
+import com.rest.playlist.search.SongSearchEngine;
+import com.rest.playlist.search.SongSearchHits;
+import com.rest.playlist.search.SongSearchQuery;
+import com.rest.playlist.search.TypeaheadIndex;
+import com.rest.playlist.web.exception.FormatNotValidException;
+import com.rest.playlist.web.exception.ResourceNotFoundException;
+import org.apache.commons.lang3.EnumUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional(readOnly = true)
+public class SongSearchServiceImpl implements ISongSearchService {
+
+    public static final int MAX_SEARCH_TERMS = 10;
+    // a page further in still ranks every match before it, deeper results are reached by refining q
+    public static final int MAX_SEARCH_OFFSET = 10_000;
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private final SongSearchEngine songSearchEngine;
+    private final SongRepository songRepository;
+    private final TypeaheadIndex typeaheadIndex;
+
+    public SongSearchServiceImpl(SongSearchEngine songSearchEngine, SongRepository songRepository, TypeaheadIndex typeaheadIndex) {
+        this.songSearchEngine = songSearchEngine;
+        this.songRepository = songRepository;
+        this.typeaheadIndex = typeaheadIndex;
+    }
+
+    @Override
+    public SearchPage<Song> searchSongs(String q, String category, String type, Integer page, Integer size) {
+        List<String> terms = SearchTokenizer.tokenize(q);
+        if (terms.isEmpty()) {
+            throw new FormatNotValidException("q doit contenir au moins un mot");
+        }
+        if (terms.size() > MAX_SEARCH_TERMS) {
+            throw new FormatNotValidException("q ne doit pas dépasser " + MAX_SEARCH_TERMS + " mots");
+        }
+        int pageNumber = page == null ? 0 : page;
+        if (pageNumber < 0) {
+            throw new FormatNotValidException("page doit être supérieur ou égal à 0");
+        }
+        int pageSize = size == null ? SongServiceImpl.DEFAULT_PAGE_SIZE : Math.min(size, SongServiceImpl.MAX_PAGE_SIZE);
+        if (pageSize < 1) {
+            throw new FormatNotValidException("size doit être supérieur à 0");
+        }
+        // computed in long : page * size overflows an int for a large page number
+        long offset = (long) pageNumber * pageSize;
+        if (offset > MAX_SEARCH_OFFSET) {
+            throw new FormatNotValidException("page * size ne doit pas dépasser " + MAX_SEARCH_OFFSET);
+        }
+
+        SongSearchHits hits = songSearchEngine.search(SongSearchQuery.builder()
+                .terms(terms)
+                .category(category == null ? null : parseCategory(category))
+                .melodyType(type == null ? null : parseMelodyType(type))
+                .offset((int) offset)
+                .limit(pageSize)
+                .build());
+
+        // findAllById does not keep the order of the ids, the ranking is restored here
+        Map<Long, Song> songsById = songRepository.findAllById(hits.getSongIds()).stream()
+                .collect(Collectors.toMap(Song::getId, Function.identity()));
+        List<Song> songs = new ArrayList<>(hits.getSongIds().size());
+        for (Long songId : hits.getSongIds()) {
+            Song song = songsById.get(songId);
+            if (song != null) {
+                songs.add(song);
+            }
+        }
+        return SearchPage.<Song>builder()
+                .content(songs)
+                .total(hits.getTotal())
+                .build();
+    }
+
+    @Override
+    // served from memory on every keystroke : no transaction, no connection taken from the pool
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Suggestion> autocomplete(String prefix, String type, Integer limit) {
+        if (typeaheadIndex.normalize(prefix).isEmpty()) {
+            throw new FormatNotValidException("prefix ne doit pas être vide");
+        }
+        int suggestions = limit == null ? DEFAULT_SUGGESTIONS : Math.min(limit, MAX_SUGGESTIONS);
+        if (suggestions < 1) {
+            throw new FormatNotValidException("limit doit être supérieur à 0");
+        }
+        SuggestionType searchedType = null;
+        if (type != null) {
+            searchedType = EnumUtils.getEnumIgnoreCase(SuggestionType.class, type);
+            if (searchedType == null) {
+                throw new ResourceNotFoundException("Not found Suggestion type with value = " + type);
+            }
+        }
+        return typeaheadIndex.suggest(prefix, searchedType, suggestions);
+    }
+
+    private static SongCategory parseCategory(String category) {
+        SongCategory searchedCategory = EnumUtils.getEnumIgnoreCase(SongCategory.class, category);
+        if (searchedCategory == null) {
+            throw new ResourceNotFoundException("Not found Category with value = " + category);
+        }
+        return searchedCategory;
+    }
+
+    private static MelodyType parseMelodyType(String type) {
+        MelodyType searchedType = EnumUtils.getEnumIgnoreCase(MelodyType.class, type);
+        if (searchedType == null) {
+            throw new ResourceNotFoundException("Not found type Melody with value = " + type);
+        }
+        return searchedType;
+    }
+}
@@ -1,30 +1,69 @@
 package com.rest.playlist.service;
 
+import com.rest.playlist.audit.AuditedDeletions;
+import com.rest.playlist.config.CacheConfig;
+import com.rest.playlist.dto.CursorPage;
+import com.rest.playlist.dto.SongPatch;
 import com.rest.playlist.enums.MelodyType;
 import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.mapper.DurationParser;
 import com.rest.playlist.web.exception.FormatNotValidException;
+import com.rest.playlist.web.exception.ResourceConflictException;
 import com.rest.playlist.web.exception.ResourceNotFoundException;
 import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongFields;
+import com.rest.playlist.repository.SongFieldsRow;
+import com.rest.playlist.repository.SongFilter;
+import com.rest.playlist.repository.SongMelodyIds;
 import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.event.SongChangedEvent;
+import org.hibernate.Hibernate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.apache.commons.lang3.EnumUtils;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @Transactional
 public class SongServiceImpl implements ISongService {
     private static final Logger log = LoggerFactory.getLogger(SongServiceImpl.class);
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_DELETE_IDS = 1000;
+
     private final SongRepository songRepository;
+    private final Cache songsCache;
+    private final Cache songIdsByMelodyCache;
+    // bumped after each committed write, before its evictions : a reader whose database load raced with a write
+    // drops the entry it just put, so a row read before the commit never outlives the eviction
+    private final AtomicLong cacheGeneration = new AtomicLong();
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuditedDeletions auditedDeletions;
 
-    public SongServiceImpl(SongRepository songRepository) {
+    public SongServiceImpl(SongRepository songRepository, CacheManager cacheManager, ApplicationEventPublisher eventPublisher,
+                           AuditedDeletions auditedDeletions) {
         this.songRepository = songRepository;
+        this.eventPublisher = eventPublisher;
+        this.auditedDeletions = auditedDeletions;
+        this.songsCache = cacheManager.getCache(CacheConfig.SONGS_CACHE);
+        this.songIdsByMelodyCache = cacheManager.getCache(CacheConfig.SONG_IDS_BY_MELODY_CACHE);
     }
 
     @Override
@@ -35,12 +74,81 @@ public class SongServiceImpl implements ISongService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Song> getSongsByCategory(String category) {
-        SongCategory searchedCategory = EnumUtils.getEnumIgnoreCase(SongCategory.class, category);
-        if (searchedCategory == null) {
-            throw new ResourceNotFoundException("Not found Category with value = " + category);
+    public CursorPage<Song> getSongsPage(Long cursor, Integer size) {
+        return getSongsPage(cursor, size, null, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Song> getSongsPage(Long cursor, Integer size, String minDuration, String maxDuration) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        if (pageSize < 1) {
+            throw new FormatNotValidException("size doit être supérieur à 0");
+        }
+        long afterId = cursor == null ? 0L : cursor;
+        Long minMillis = parseDuration("minDuration", minDuration);
+        Long maxMillis = parseDuration("maxDuration", maxDuration);
+        checkDurationRange(minMillis, maxMillis);
+
+        // one extra row tells whether a next page exists without a count query
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        List<Song> songs = minMillis == null && maxMillis == null
+                ? songRepository.findByIdGreaterThanOrderByIdAsc(afterId, pageRequest)
+                : songRepository.findByIdGreaterThanAndDurationBetweenOrderByIdAsc(afterId,
+                minMillis == null ? 0L : minMillis, maxMillis == null ? Long.MAX_VALUE : maxMillis, pageRequest);
+        Long nextCursor = null;
+        if (songs.size() > pageSize) {
+            songs = new ArrayList<>(songs.subList(0, pageSize));
+            nextCursor = songs.get(pageSize - 1).getId();
         }
-        return songRepository.findSongsByCategory(searchedCategory);
+        return CursorPage.<Song>builder()
+                .content(songs)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SongFieldsRow> getSongFields(String fields, String category, String artistName, String type) {
+        SongFilter filter = SongFilter.builder()
+                .category(category == null ? null : parseCategory(category))
+                .artistName(artistName)
+                .melodyType(type == null ? null : parseMelodyType(type))
+                .build();
+        return songRepository.findSongFields(parseFields(fields), filter, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<SongFieldsRow> getSongFieldsPage(String fields, Long cursor, Integer size,
+                                                       String minDuration, String maxDuration) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        if (pageSize < 1) {
+            throw new FormatNotValidException("size doit être supérieur à 0");
+        }
+        SongFilter filter = SongFilter.builder()
+                .afterId(cursor == null ? 0L : cursor)
+                .minDuration(parseDuration("minDuration", minDuration))
+                .maxDuration(parseDuration("maxDuration", maxDuration))
+                .build();
+        checkDurationRange(filter.getMinDuration(), filter.getMaxDuration());
+
+        List<SongFieldsRow> rows = songRepository.findSongFields(parseFields(fields), filter, pageSize + 1);
+        Long nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            nextCursor = rows.get(pageSize - 1).getId();
+        }
+        return CursorPage.<SongFieldsRow>builder()
+                .content(rows)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Song> getSongsByCategory(String category) {
+        return songRepository.findSongsByCategory(parseCategory(category));
     }
 
     @Override
@@ -52,25 +160,57 @@ public class SongServiceImpl implements ISongService {
     @Override
     @Transactional(readOnly = true)
     public Song getSongsByMelodyId(Long id) {
-        return songRepository.findSongByMelody_Id(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Not found song with melody id = " + id));
+        // a melody never moves to another song, so only the melody -> song id link is cached
+        // and the song itself is served from the songs cache
+        Long songId = songIdsByMelodyCache.get(id, Long.class);
+        if (songId != null) {
+            CachedSong cachedSong = songsCache.get(songId, CachedSong.class);
+            if (cachedSong != null) {
+                return cachedSong.toSong();
+            }
+        }
+
+        long generation = cacheGeneration.get();
+        Song song = songRepository.findSongByMelody_Id(id)
+                .orElseThrow(() -> {
+                    songIdsByMelodyCache.evict(id);
+                    return new ResourceNotFoundException("Not found song with melody id = " + id);
+                });
+        songIdsByMelodyCache.putIfAbsent(id, song.getId());
+        cache(song, id, generation);
+        return song;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Song> getSongsByMelodyType(String type) {
-        MelodyType searchedType = EnumUtils.getEnumIgnoreCase(MelodyType.class, type);
-        if (searchedType == null) {
-            throw new ResourceNotFoundException("Not found type Melody with value = " + type);
-        }
-        return songRepository.findSongsByMelody_Type(searchedType);
+        return songRepository.findSongsByMelody_Type(parseMelodyType(type));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Song getSongById(Long id) {
-        return songRepository.findById(id)
+        CachedSong cachedSong = songsCache.get(id, CachedSong.class);
+        if (cachedSong != null) {
+            return cachedSong.toSong();
+        }
+
+        long generation = cacheGeneration.get();
+        Song song = songRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Not found song with id = " + id));
+        // a song read from the second-level cache comes back with a melody proxy
+        Hibernate.initialize(song.getMelody());
+        cache(song, null, generation);
+        return song;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Song getCurrentSong(Long id) {
+        Song song = songRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Not found song with id = " + id));
+        Hibernate.initialize(song.getMelody());
+        return song;
     }
 
     @Override
@@ -78,13 +218,17 @@ public class SongServiceImpl implements ISongService {
         if(!StringUtils.hasText(song.getMelody().getPitch())){
             throw new FormatNotValidException("Melody : pitch ne doit pas être null ou vide");
         }
-        if(!StringUtils.hasText(song.getMelody().getDuration())){
-            throw new FormatNotValidException("Melody : duration ne doit pas être null ou vide");
+        if(song.getMelody().getDuration() == null){
+            throw new FormatNotValidException("Melody : " + DurationParser.MESSAGE);
         }
         if(song.getMelody().getType() == null){
             throw new FormatNotValidException("Melody : type ne doit pas être null");
         }
-        return songRepository.save(song);
+        Song savedSong = songRepository.save(song);
+        // a client supplied id turns the save into an update of an existing row
+        evictAfterCommit(savedSong, true);
+        eventPublisher.publishEvent(SongChangedEvent.saved(savedSong));
+        return savedSong;
     }
 
     @Override
@@ -92,21 +236,190 @@ public class SongServiceImpl implements ISongService {
 
         Song searchedSong = songRepository.findById(song.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Not found song with id = " + song.getId()));
+        checkVersion(searchedSong, song.getVersion());
 
         searchedSong.setTitle(song.getTitle());
         searchedSong.setDescription(song.getDescription());
         searchedSong.setArtistName(song.getArtistName());
         searchedSong.setCategory(song.getCategory());
         searchedSong.setDuration(song.getDuration());
+        if (song.getMelody() != null) {
+            searchedSong.getMelody().setPitch(song.getMelody().getPitch());
+            searchedSong.getMelody().setDuration(song.getMelody().getDuration());
+            searchedSong.getMelody().setType(song.getMelody().getType());
+        }
 
-        return songRepository.saveAndFlush(song);
+        // the managed song is flushed on commit : only the changed columns are updated, guarded by the version
+        evictAfterCommit(searchedSong, false);
+        eventPublisher.publishEvent(SongChangedEvent.saved(searchedSong));
+        return searchedSong;
     }
 
     @Override
-    public void deleteSongById(Long id) {
-        songRepository.findById(id)
+    public void patchSong(Long id, SongPatch patch) {
+        Song searchedSong = songRepository.findWithoutMelodyById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Not found song with id = " + id));
+        checkVersion(searchedSong, patch.getVersion());
+
+        if (patch.getTitle() != null) {
+            searchedSong.setTitle(patch.getTitle());
+        }
+        if (patch.getDescription() != null) {
+            searchedSong.setDescription(patch.getDescription());
+        }
+        if (patch.getArtistName() != null) {
+            searchedSong.setArtistName(patch.getArtistName());
+        }
+        if (patch.getCategory() != null) {
+            searchedSong.setCategory(patch.getCategory());
+        }
+        if (patch.getDuration() != null) {
+            searchedSong.setDuration(parseDuration("duration", patch.getDuration()));
+        }
+
+        evictAfterCommit(searchedSong, false);
+        eventPublisher.publishEvent(SongChangedEvent.saved(searchedSong));
+    }
 
-        songRepository.deleteById(id);
+    @Override
+    public void deleteSongById(Long id) {
+        if (!deleteSongs(Collections.singleton(id)).isEmpty()) {
+            throw new ResourceNotFoundException("Not found song with id = " + id);
+        }
+    }
+
+    @Override
+    public void deleteSongsByIds(List<Long> ids) {
+        Set<Long> searchedIds = new LinkedHashSet<>(ids);
+        if (searchedIds.isEmpty()) {
+            throw new FormatNotValidException("ids ne doit pas être vide");
+        }
+        if (searchedIds.size() > MAX_DELETE_IDS) {
+            throw new FormatNotValidException("ids ne doit pas dépasser " + MAX_DELETE_IDS + " identifiants");
+        }
+
+        Set<Long> notFoundIds = deleteSongs(searchedIds);
+        if (!notFoundIds.isEmpty()) {
+            throw new ResourceNotFoundException("Not found songs with ids = " + notFoundIds);
+        }
+    }
+
+    /**
+     * deletes the songs and their melodies with one statement each, whatever their number, and writes their audit rows.
+     * Returns the ids no song was deleted for : the transaction is then rolled back by the caller's exception.
+     */
+    private Set<Long> deleteSongs(Set<Long> ids) {
+        // the melody ids are read before their songs go, songs.melody_id is the only link to them
+        List<SongMelodyIds> songs = songRepository.findMelodyIdsByIdIn(ids);
+        int deleted = songRepository.deleteSongsByIdIn(ids);
+        if (deleted != ids.size()) {
+            Set<Long> notFoundIds = new LinkedHashSet<>(ids);
+            songs.forEach(song -> notFoundIds.remove(song.getId()));
+            // a song found by the select but deleted concurrently before the DELETE still counts as missing
+            return notFoundIds.isEmpty() ? ids : notFoundIds;
+        }
+
+        List<Long> melodyIds = new ArrayList<>(songs.size());
+        songs.forEach(song -> melodyIds.add(song.getMelodyId()));
+        songRepository.deleteMelodiesByIdIn(melodyIds);
+        auditedDeletions.deleted(ids, melodyIds);
+
+        songs.forEach(song -> {
+            evictAfterCommit(song.getId(), song.getMelodyId());
+            eventPublisher.publishEvent(SongChangedEvent.deleted(song.getId()));
+        });
+        return Collections.emptySet();
+    }
+
+    private static SongFields parseFields(String fields) {
+        try {
+            return SongFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new FormatNotValidException("fields : champ inconnu ou vide = " + e.getMessage());
+        }
+    }
+
+    private static Long parseDuration(String name, String duration) {
+        if (duration == null) {
+            return null;
+        }
+        Long millis = DurationParser.parseMillis(duration);
+        if (millis == null) {
+            throw new FormatNotValidException(name + " : [h:]m:ss, ISO-8601 ou millisecondes attendu = " + duration);
+        }
+        return millis;
+    }
+
+    private static void checkDurationRange(Long minDuration, Long maxDuration) {
+        if (minDuration != null && maxDuration != null && minDuration > maxDuration) {
+            throw new FormatNotValidException("minDuration doit être inférieure ou égale à maxDuration");
+        }
+    }
+
+    private static SongCategory parseCategory(String category) {
+        SongCategory searchedCategory = EnumUtils.getEnumIgnoreCase(SongCategory.class, category);
+        if (searchedCategory == null) {
+            throw new ResourceNotFoundException("Not found Category with value = " + category);
+        }
+        return searchedCategory;
+    }
+
+    private static MelodyType parseMelodyType(String type) {
+        MelodyType searchedType = EnumUtils.getEnumIgnoreCase(MelodyType.class, type);
+        if (searchedType == null) {
+            throw new ResourceNotFoundException("Not found type Melody with value = " + type);
+        }
+        return searchedType;
+    }
+
+    private void checkVersion(Song song, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(song.getVersion())) {
+            throw new ResourceConflictException("Conflict song with id = " + song.getId()
+                    + " : version " + expectedVersion + " is not the current version " + song.getVersion());
+        }
+    }
+
+    /**
+     * puts a copy of a song loaded from the database, unless a write committed since the generation was read :
+     * that write may have evicted before this put, the entry is then dropped again and the next reader reloads it
+     */
+    private void cache(Song song, Long melodyId, long generation) {
+        songsCache.putIfAbsent(song.getId(), CachedSong.of(song));
+        if (cacheGeneration.get() != generation) {
+            songsCache.evict(song.getId());
+            if (melodyId != null) {
+                songIdsByMelodyCache.evict(melodyId);
+            }
+        }
+    }
+
+    /**
+     * drops the cached entries of the song once the transaction commits. Evicting alone is not enough : a reader
+     * that loaded the old row before the commit can put it after this eviction, so the generation is bumped first
+     * and that reader evicts its own stale entry (see cache)
+     */
+    private void evictAfterCommit(Song song, boolean evictMelodyLink) {
+        evictAfterCommit(song.getId(), !evictMelodyLink || song.getMelody() == null ? null : song.getMelody().getId());
+    }
+
+    private void evictAfterCommit(Long songId, Long melodyId) {
+        Runnable eviction = () -> {
+            cacheGeneration.incrementAndGet();
+            songsCache.evict(songId);
+            if (melodyId != null) {
+                songIdsByMelodyCache.evict(melodyId);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
     }
 }
@@ -0,0 +1,104 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.dto.CatalogStats;
+import com.rest.playlist.repository.SongStatsRepository;
+import com.rest.playlist.service.event.SongChangedEvent;
+import com.rest.playlist.web.exception.FormatNotValidException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * serves the catalog statistics from a snapshot of the GROUP BY queries of SongStatsRepository.
+ * A song change committed through the services marks the snapshot stale, it is then computed again by the next
+ * read, at most once every playlist.stats.refresh-interval-ms however many writes happen in between.
+ * Changes made by other instances show up once the snapshot is older than playlist.stats.max-age-ms.
+ */
+
+@Service
+public class SongStatsServiceImpl implements ISongStatsService {
+
+    public static final int DEFAULT_ARTISTS = 20;
+    public static final int MAX_ARTISTS = 100;
+
+    private final SongStatsRepository songStatsRepository;
+    private final long refreshIntervalMillis;
+    private final long maxAgeMillis;
+    // committed song changes seen by this instance
+    private final AtomicLong changes = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public SongStatsServiceImpl(SongStatsRepository songStatsRepository,
+                                @Value("${playlist.stats.refresh-interval-ms:1000}") long refreshIntervalMillis,
+                                @Value("${playlist.stats.max-age-ms:60000}") long maxAgeMillis) {
+        this.songStatsRepository = songStatsRepository;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    @Override
+    public CatalogStats getStats(Integer artists) {
+        int artistCount = artists == null ? DEFAULT_ARTISTS : Math.min(artists, MAX_ARTISTS);
+        if (artistCount < 1) {
+            throw new FormatNotValidException("artists doit être supérieur à 0");
+        }
+        CatalogStats stats = currentSnapshot().stats;
+        if (stats.getArtists().size() <= artistCount) {
+            return stats;
+        }
+        return CatalogStats.builder()
+                .total(stats.getTotal())
+                .categories(stats.getCategories())
+                .melodyTypes(stats.getMelodyTypes())
+                .artists(stats.getArtists().subList(0, artistCount))
+                .computedAt(stats.getComputedAt())
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSongChanged(SongChangedEvent event) {
+        changes.incrementAndGet();
+    }
+
+    // concurrent reads of a stale snapshot wait for a single computation
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (isFresh(current)) {
+                return current;
+            }
+            // read before the queries : a change committed while they run makes the next read compute again
+            long changeCount = changes.get();
+            current = new Snapshot(songStatsRepository.findStats(MAX_ARTISTS), changeCount, System.currentTimeMillis());
+            snapshot = current;
+            return current;
+        }
+    }
+
+    private boolean isFresh(Snapshot current) {
+        if (current == null) {
+            return false;
+        }
+        long age = System.currentTimeMillis() - current.computedAt;
+        return age < maxAgeMillis && (current.changeCount == changes.get() || age < refreshIntervalMillis);
+    }
+
+    private static final class Snapshot {
+
+        private final CatalogStats stats;
+        private final long changeCount;
+        private final long computedAt;
+
+        private Snapshot(CatalogStats stats, long changeCount, long computedAt) {
+            this.stats = stats;
+            this.changeCount = changeCount;
+            this.computedAt = computedAt;
+        }
+    }
+}
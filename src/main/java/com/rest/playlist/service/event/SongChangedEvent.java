@@ -0,0 +1,52 @@
+package com.rest.playlist.service.event;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+import lombok.Getter;
+import org.hibernate.Hibernate;
+
+/**
+ * published by the services whenever a song is saved or deleted, listeners receive it once the transaction commits.
+ * The searchable fields are copied when the event is created : the song is detached by the time listeners run.
+ * melodyType is null when the change did not load the melody (partial update), the melody is then unchanged.
+ */
+
+@Getter
+public class SongChangedEvent {
+
+    public enum Type {
+        SAVED,
+        DELETED
+    }
+
+    private final Type type;
+    private final Long songId;
+    private final String title;
+    private final String description;
+    private final String artistName;
+    private final SongCategory category;
+    private final MelodyType melodyType;
+
+    private SongChangedEvent(Type type, Long songId, String title, String description, String artistName,
+                             SongCategory category, MelodyType melodyType) {
+        this.type = type;
+        this.songId = songId;
+        this.title = title;
+        this.description = description;
+        this.artistName = artistName;
+        this.category = category;
+        this.melodyType = melodyType;
+    }
+
+    public static SongChangedEvent saved(Song song) {
+        MelodyType melodyType = song.getMelody() != null && Hibernate.isInitialized(song.getMelody())
+                ? song.getMelody().getType() : null;
+        return new SongChangedEvent(Type.SAVED, song.getId(), song.getTitle(), song.getDescription(),
+                song.getArtistName(), song.getCategory(), melodyType);
+    }
+
+    public static SongChangedEvent deleted(Long songId) {
+        return new SongChangedEvent(Type.DELETED, songId, null, null, null, null, null);
+    }
+}
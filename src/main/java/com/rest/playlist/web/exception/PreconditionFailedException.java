@@ -0,0 +1,16 @@
+package com.rest.playlist.web.exception;
+
+
+/**
+ * PreconditionFailedException class extends RuntimeException.
+ * It's about a custom exception :
+ * throwing an exception when a conditional request does not hold in Spring Boot Service
+ * eg the If-Match header does not match the current ETag of the song
+ * PreconditionFailedException is thrown with Http 412
+ */
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
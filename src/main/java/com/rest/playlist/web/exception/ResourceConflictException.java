@@ -0,0 +1,16 @@
+package com.rest.playlist.web.exception;
+
+
+/**
+ * ResourceConflictException class extends RuntimeException.
+ * It's about a custom exception :
+ * throwing an exception when a resource was modified concurrently in Spring Boot Service
+ * eg the version sent by the client is not the current version of the song
+ * ResourceConflictException is thrown with Http 409
+ */
+
+public class ResourceConflictException extends RuntimeException {
+    public ResourceConflictException(String message) {
+        super(message);
+    }
+}
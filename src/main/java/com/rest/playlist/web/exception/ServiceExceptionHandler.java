@@ -3,8 +3,10 @@ package com.rest.playlist.web.exception;
 import com.rest.playlist.service.SongServiceImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -19,6 +21,7 @@ import java.util.stream.Collectors;
 /**
  * ServiceExceptionHandler class handles specific exceptions :
  * ResoureNotFoundException, FormatNotValidException, MethodArgumentNotValidException,
+ * ResourceConflictException, PreconditionFailedException, optimistic locking failures
  * and global Exception in only one place.
  */
 
@@ -81,6 +84,61 @@ public class ServiceExceptionHandler {
         return new ResponseEntity<>(message, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ResourceConflictException.class)
+    public final ResponseEntity<ErrorMessage> handleResourceConflictException(ResourceConflictException e, WebRequest request) {
+
+        ErrorMessage message = ErrorMessage.builder()
+                .statusCode(HttpStatus.CONFLICT.value())
+                .timeStamp(new Date())
+                .message(e.getMessage())
+                .description(request.getDescription(false))
+                .build();
+
+        return new ResponseEntity<>(message, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public final ResponseEntity<ErrorMessage> handlePreconditionFailedException(PreconditionFailedException e, WebRequest request) {
+
+        ErrorMessage message = ErrorMessage.builder()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value())
+                .timeStamp(new Date())
+                .message(e.getMessage())
+                .description(request.getDescription(false))
+                .build();
+
+        return new ResponseEntity<>(message, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public final ResponseEntity<ErrorMessage> handleServiceUnavailableException(ServiceUnavailableException e, WebRequest request) {
+
+        ErrorMessage message = ErrorMessage.builder()
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .timeStamp(new Date())
+                .message(e.getMessage())
+                .description(request.getDescription(false))
+                .build();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ResponseEntity<>(message, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // a concurrent transaction committed a new version between our read and our update
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public final ResponseEntity<ErrorMessage> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException e, WebRequest request) {
+
+        ErrorMessage message = ErrorMessage.builder()
+                .statusCode(HttpStatus.CONFLICT.value())
+                .timeStamp(new Date())
+                .message("Conflict song with id = " + e.getIdentifier() + " : modified concurrently")
+                .description(request.getDescription(false))
+                .build();
+
+        return new ResponseEntity<>(message, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorMessage> globalException(Exception e, WebRequest request) {
         ErrorMessage message =
@@ -0,0 +1,16 @@
+package com.rest.playlist.web.exception;
+
+
+/**
+ * ServiceUnavailableException class extends RuntimeException.
+ * It's about a custom exception :
+ * throwing an exception when too many requests are already in progress in Spring Boot Service
+ * the client is asked to retry later through the Retry-After header
+ * ServiceUnavailableException is thrown with Http 503
+ */
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
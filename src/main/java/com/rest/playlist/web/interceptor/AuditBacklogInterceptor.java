@@ -0,0 +1,32 @@
+package com.rest.playlist.web.interceptor;
+
+import com.rest.playlist.audit.AuditOutboxWriter;
+import com.rest.playlist.web.exception.ServiceUnavailableException;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * backpressure on the writes when the audit outbox is full : the write requests are answered with Http 503
+ * until the audit writer catches up, the reads are still served.
+ */
+public class AuditBacklogInterceptor implements HandlerInterceptor {
+
+    private final AuditOutboxWriter auditOutboxWriter;
+
+    public AuditBacklogInterceptor(AuditOutboxWriter auditOutboxWriter) {
+        this.auditOutboxWriter = auditOutboxWriter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())
+                && auditOutboxWriter.isFull()) {
+            throw new ServiceUnavailableException("Audit backlog full with " + auditOutboxWriter.getPending()
+                    + " pending changes, retry later");
+        }
+        return true;
+    }
+}
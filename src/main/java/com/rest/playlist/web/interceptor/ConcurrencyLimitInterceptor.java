@@ -0,0 +1,57 @@
+package com.rest.playlist.web.interceptor;
+
+import com.rest.playlist.web.exception.ServiceUnavailableException;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * backpressure on the /api handlers : at most maxConcurrentRequests run at the same time,
+ * a request waiting longer than acquireTimeoutMillis for a slot is answered with Http 503.
+ * Without it, a burst on virtual threads would only move the queue to the connection pool.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+
+    public ConcurrencyLimitInterceptor(int maxConcurrentRequests, long acquireTimeoutMillis) {
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws InterruptedException {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new ServiceUnavailableException("Too many requests in progress, retry later");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permits.release();
+        }
+    }
+
+    // a streamed response (change feed, reactive read) no longer holds a request thread once its handler returned
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        afterCompletion(request, response, handler, null);
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,61 @@
+package com.rest.playlist.web.resource;
+
+import com.rest.playlist.dto.SongResponse;
+import com.rest.playlist.mapper.SongMapper;
+import com.rest.playlist.service.ISongReactiveService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * reactive mirror of the GET endpoints of SongResource, enabled with playlist.reactive.enabled=true.
+ * With Accept: application/x-ndjson the songs are streamed one per line as the rows arrive,
+ * the next row being requested only once the previous one is written to the client.
+ */
+
+@RestController
+@RequestMapping("/api/reactive/songs")
+@ConditionalOnProperty(name = "playlist.reactive.enabled", havingValue = "true")
+public class SongReactiveResource {
+
+    final private ISongReactiveService songReactiveService;
+
+    final private SongMapper songMapper;
+
+    public SongReactiveResource(ISongReactiveService songReactiveService, SongMapper songMapper) {
+        this.songReactiveService = songReactiveService;
+        this.songMapper = songMapper;
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, SongResource.NDJSON_VALUE})
+    public Flux<SongResponse> getAllSongs() {
+        return songReactiveService.getAllSongs().map(songMapper::toResponse);
+    }
+
+    @GetMapping(value = "/category/{category}", produces = {MediaType.APPLICATION_JSON_VALUE, SongResource.NDJSON_VALUE})
+    public Flux<SongResponse> getSongsByCategory(@PathVariable String category) {
+        return songReactiveService.getSongsByCategory(category).map(songMapper::toResponse);
+    }
+
+    @GetMapping(value = "/artist/{artistName}", produces = {MediaType.APPLICATION_JSON_VALUE, SongResource.NDJSON_VALUE})
+    public Flux<SongResponse> getSongsByArtist(@PathVariable String artistName) {
+        return songReactiveService.getSongsByArtistName(artistName).map(songMapper::toResponse);
+    }
+
+    @GetMapping("/melody/id/{id}")
+    public Mono<SongResponse> getSongsByMelodyId(@PathVariable Long id) {
+        return songReactiveService.getSongsByMelodyId(id).map(songMapper::toResponse);
+    }
+
+    @GetMapping(value = "/melody/type/{type}", produces = {MediaType.APPLICATION_JSON_VALUE, SongResource.NDJSON_VALUE})
+    public Flux<SongResponse> getSongsByMelodyType(@PathVariable String type) {
+        return songReactiveService.getSongsByMelodyType(type).map(songMapper::toResponse);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<SongResponse> getSongById(@PathVariable Long id) {
+        return songReactiveService.getSongById(id).map(songMapper::toResponse);
+    }
+}
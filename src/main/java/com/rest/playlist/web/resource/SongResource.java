@@ -1,15 +1,40 @@
 package com.rest.playlist.web.resource;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.dto.BatchResult;
+import com.rest.playlist.dto.CursorPage;
+import com.rest.playlist.dto.SongPatch;
+import com.rest.playlist.dto.SongRequest;
+import com.rest.playlist.dto.SongResponse;
+import com.rest.playlist.mapper.SongMapper;
 import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongFieldsRow;
+import com.rest.playlist.service.ISongBatchService;
 import com.rest.playlist.service.ISongService;
 import com.rest.playlist.service.SongServiceImpl;
+import com.rest.playlist.web.exception.FormatNotValidException;
+import com.rest.playlist.web.exception.PreconditionFailedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 
 @RestController
@@ -19,55 +44,174 @@ public class SongResource {
     final private ISongService ISongService;
     private static final Logger log = LoggerFactory.getLogger(SongServiceImpl.class);
 
-    public SongResource(ISongService ISongService) {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private static final ObjectMapper NDJSON_MAPPER = new ObjectMapper()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    final private ISongBatchService songBatchService;
+
+    final private SongMapper songMapper;
+
+    public SongResource(ISongService ISongService, ISongBatchService songBatchService, SongMapper songMapper) {
         this.ISongService = ISongService;
+        this.songBatchService = songBatchService;
+        this.songMapper = songMapper;
     }
 
+    /*
+     * minDuration and maxDuration (both included, same formats as the song duration) always return pages
+     */
+
     @GetMapping
-    public ResponseEntity<List<Song>> getAllSongs() {
-        List<Song> songs = ISongService.getAllSongs();
-        return new ResponseEntity<>(songs, HttpStatus.OK);
+    public ResponseEntity<List<SongResponse>> getAllSongs(@RequestParam(required = false) Long cursor,
+                                                          @RequestParam(required = false) Integer size,
+                                                          @RequestParam(required = false) String minDuration,
+                                                          @RequestParam(required = false) String maxDuration) {
+        if (cursor == null && size == null && minDuration == null && maxDuration == null) {
+            List<Song> songs = ISongService.getAllSongs();
+            return new ResponseEntity<>(songMapper.toResponses(songs), eTagHeaders(songs, null), HttpStatus.OK);
+        }
+        CursorPage<Song> page = ISongService.getSongsPage(cursor, size, minDuration, maxDuration);
+        HttpHeaders headers = eTagHeaders(page.getContent(), page.getNextCursor());
+        headers.addAll(nextPageHeaders(page));
+        return new ResponseEntity<>(songMapper.toResponses(page.getContent()), headers, HttpStatus.OK);
+    }
+
+    /*
+     * sparse fieldsets : with fields=title,artistName,melody.type the list endpoints select only these columns
+     * and skip the melody join unless a melody column is requested
+     */
+
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<SongFieldsRow>> getAllSongFields(@RequestParam String fields,
+                                                                @RequestParam(required = false) Long cursor,
+                                                                @RequestParam(required = false) Integer size,
+                                                                @RequestParam(required = false) String minDuration,
+                                                                @RequestParam(required = false) String maxDuration) {
+        if (cursor == null && size == null && minDuration == null && maxDuration == null) {
+            List<SongFieldsRow> rows = ISongService.getSongFields(fields, null, null, null);
+            return new ResponseEntity<>(rows, fieldsETagHeaders(rows, null), HttpStatus.OK);
+        }
+        CursorPage<SongFieldsRow> page = ISongService.getSongFieldsPage(fields, cursor, size, minDuration, maxDuration);
+        HttpHeaders headers = fieldsETagHeaders(page.getContent(), page.getNextCursor());
+        headers.addAll(nextPageHeaders(page));
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/category/{category}", params = "fields")
+    public ResponseEntity<List<SongFieldsRow>> getSongFieldsByCategory(@PathVariable String category, @RequestParam String fields) {
+        List<SongFieldsRow> rows = ISongService.getSongFields(fields, category, null, null);
+        return new ResponseEntity<>(rows, fieldsETagHeaders(rows, null), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/artist/{artistName}", params = "fields")
+    public ResponseEntity<List<SongFieldsRow>> getSongFieldsByArtist(@PathVariable String artistName, @RequestParam String fields) {
+        List<SongFieldsRow> rows = ISongService.getSongFields(fields, null, artistName, null);
+        return new ResponseEntity<>(rows, fieldsETagHeaders(rows, null), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/melody/type/{type}", params = "fields")
+    public ResponseEntity<List<SongFieldsRow>> getSongFieldsByMelodyType(@PathVariable String type, @RequestParam String fields) {
+        List<SongFieldsRow> rows = ISongService.getSongFields(fields, null, null, type);
+        return new ResponseEntity<>(rows, fieldsETagHeaders(rows, null), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSongs() {
+        StreamingResponseBody body = outputStream -> {
+            Long cursor = null;
+            do {
+                CursorPage<Song> page = ISongService.getSongsPage(cursor, SongServiceImpl.MAX_PAGE_SIZE);
+                for (Song song : page.getContent()) {
+                    NDJSON_MAPPER.writeValue(outputStream, songMapper.toResponse(song));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        };
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.valueOf(NDJSON_VALUE));
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Song>> getSongsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<SongResponse>> getSongsByCategory(@PathVariable String category) {
         List<Song> songs = ISongService.getSongsByCategory(category);
-        return new ResponseEntity<>(songs, HttpStatus.OK);
+        return new ResponseEntity<>(songMapper.toResponses(songs), eTagHeaders(songs, null), HttpStatus.OK);
     }
 
     @GetMapping("/artist/{artistName}")
-    public ResponseEntity<List<Song>> getSongsByArtist(@PathVariable String artistName) {
+    public ResponseEntity<List<SongResponse>> getSongsByArtist(@PathVariable String artistName) {
         List<Song> songs = ISongService.getSongsByArtistName(artistName);
-        return new ResponseEntity<>(songs, HttpStatus.OK);
+        return new ResponseEntity<>(songMapper.toResponses(songs), eTagHeaders(songs, null), HttpStatus.OK);
     }
 
     @GetMapping("/melody/id/{id}")
-    public ResponseEntity<Song> getSongsByMelodyId(@PathVariable Long id) {
-        return new ResponseEntity<>(ISongService.getSongsByMelodyId(id), HttpStatus.OK);
+    public ResponseEntity<SongResponse> getSongsByMelodyId(@PathVariable Long id) {
+        Song song = ISongService.getSongsByMelodyId(id);
+        return new ResponseEntity<>(songMapper.toResponse(song), eTagHeaders(song), HttpStatus.OK);
     }
 
     @GetMapping("/melody/type/{type}")
-    public ResponseEntity<List<Song>> getSongsByMelodyType(@PathVariable String type) {
+    public ResponseEntity<List<SongResponse>> getSongsByMelodyType(@PathVariable String type) {
         List<Song> songs = ISongService.getSongsByMelodyType(type);
-        return new ResponseEntity<>(songs, HttpStatus.OK);
+        return new ResponseEntity<>(songMapper.toResponses(songs), eTagHeaders(songs, null), HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Song> getSongById(@PathVariable Long id) {
+    public ResponseEntity<SongResponse> getSongById(@PathVariable Long id) {
         Song song = ISongService.getSongById(id);
-        return new ResponseEntity<>(song, HttpStatus.OK);
+        return new ResponseEntity<>(songMapper.toResponse(song), eTagHeaders(song), HttpStatus.OK);
     }
 
     @PostMapping
-    public ResponseEntity<Song> createSong(@Valid @RequestBody Song song) {
-        Song addedSong = ISongService.createSong(song);
-        return new ResponseEntity<>(addedSong, HttpStatus.CREATED);
+    public ResponseEntity<SongResponse> createSong(@Valid @RequestBody SongRequest songRequest) {
+        Song addedSong = ISongService.createSong(songMapper.toEntity(songRequest));
+        return new ResponseEntity<>(songMapper.toResponse(addedSong), HttpStatus.CREATED);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchResult> createSongs(@RequestBody List<SongRequest> songRequests) {
+        return new ResponseEntity<>(songBatchService.createSongs(toEntities(songRequests.iterator())), HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/batch", consumes = NDJSON_VALUE)
+    public ResponseEntity<BatchResult> createSongsFromStream(HttpServletRequest request) throws IOException {
+        try (MappingIterator<SongRequest> songRequests = NDJSON_MAPPER.readerFor(SongRequest.class).readValues(request.getInputStream())) {
+            return new ResponseEntity<>(songBatchService.createSongs(toEntities(songRequests)), HttpStatus.OK);
+        } catch (JsonProcessingException e) {
+            // only a stream that cannot even start is rejected, a malformed line ends the batch and is reported in its errors
+            throw new FormatNotValidException("NDJSON : ligne invalide, " + e.getMessage());
+        }
     }
 
     @PutMapping
-    public ResponseEntity updateSong(@Valid @RequestBody Song song) {
-        return new ResponseEntity<>(ISongService.updateSong(song), HttpStatus.OK);
+    public ResponseEntity updateSong(@Valid @RequestBody SongRequest songRequest,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Song song = songMapper.toEntity(songRequest);
+        if (ifMatch != null) {
+            if (song.getId() == null) {
+                throw new FormatNotValidException("id ne doit pas être null");
+            }
+            song.setVersion(checkIfMatch(song.getId(), ifMatch, song.getVersion()));
+        }
+        Song updatedSong = ISongService.updateSong(song);
+        return new ResponseEntity<>(songMapper.toResponse(updatedSong), eTagHeaders(updatedSong), HttpStatus.OK);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity patchSong(@PathVariable Long id, @Valid @RequestBody SongPatch patch,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) {
+            patch.setVersion(checkIfMatch(id, ifMatch, patch.getVersion()));
+        }
+        ISongService.patchSong(id, patch);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @DeleteMapping("/{id}")
@@ -75,4 +219,104 @@ public class SongResource {
         ISongService.deleteSongById(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
+
+    @DeleteMapping(params = "ids")
+    public ResponseEntity deleteSongsByIds(@RequestParam List<Long> ids) {
+        ISongService.deleteSongsByIds(ids);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    // the requests are mapped one at a time, a streamed batch never holds more than a chunk of songs
+    private Iterator<Song> toEntities(Iterator<SongRequest> songRequests) {
+        return new Iterator<Song>() {
+            @Override
+            public boolean hasNext() {
+                return songRequests.hasNext();
+            }
+
+            @Override
+            public Song next() {
+                return songMapper.toEntity(songRequests.next());
+            }
+        };
+    }
+
+    /**
+     * strong ETag of a song : the song and melody versions change whenever the JSON representation does
+     */
+    private static String eTag(Song song) {
+        Long melodyVersion = song.getMelody() == null ? null : song.getMelody().getVersion();
+        return "\"" + song.getVersion() + "." + melodyVersion + "\"";
+    }
+
+    // a GET carrying a matching If-None-Match is answered 304 by Spring from these headers, no song means no ETag
+    private static HttpHeaders eTagHeaders(Song song) {
+        HttpHeaders headers = new HttpHeaders();
+        if (song != null) {
+            headers.setETag(eTag(song));
+        }
+        headers.setCacheControl(CacheControl.noCache());
+        return headers;
+    }
+
+    private static HttpHeaders eTagHeaders(List<Song> songs, Long nextCursor) {
+        StringBuilder versions = new StringBuilder();
+        for (Song song : songs) {
+            versions.append(song.getId()).append(':').append(eTag(song)).append(',');
+        }
+        versions.append(nextCursor);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"");
+        headers.setCacheControl(CacheControl.noCache());
+        return headers;
+    }
+
+    // the versions may not be among the requested fields, the ETag is computed from the values themselves
+    private static HttpHeaders fieldsETagHeaders(List<SongFieldsRow> rows, Long nextCursor) {
+        StringBuilder values = new StringBuilder();
+        for (SongFieldsRow row : rows) {
+            values.append(row.getId()).append(':').append(row.getValues()).append(',');
+        }
+        values.append(nextCursor);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"" + DigestUtils.md5DigestAsHex(values.toString().getBytes(StandardCharsets.UTF_8)) + "\"");
+        headers.setCacheControl(CacheControl.noCache());
+        return headers;
+    }
+
+    /**
+     * checks the If-Match header against the current song and returns the version the update must be applied to,
+     * the version guard of the update then rejects any write committed in between
+     */
+    private Long checkIfMatch(Long id, String ifMatch, Long requestedVersion) {
+        Song currentSong = ISongService.getCurrentSong(id);
+        String currentETag = eTag(currentSong);
+        boolean matches = false;
+        for (String eTag : ifMatch.split(",")) {
+            String candidate = eTag.trim();
+            if (candidate.equals("*") || candidate.equals(currentETag)) {
+                matches = true;
+                break;
+            }
+        }
+        if (!matches) {
+            throw new PreconditionFailedException("Precondition failed for song with id = " + id
+                    + " : If-Match " + ifMatch + " does not match ETag " + currentETag);
+        }
+        return requestedVersion == null ? currentSong.getVersion() : requestedVersion;
+    }
+
+    private HttpHeaders nextPageHeaders(CursorPage<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .toUriString();
+            headers.add(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
 }
@@ -0,0 +1,82 @@
+package com.rest.playlist.web.resource;
+
+import com.rest.playlist.dto.CursorPage;
+import com.rest.playlist.dto.SongRevision;
+import com.rest.playlist.service.ISongRevisionService;
+import com.rest.playlist.web.sse.SongChangeFeed;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/songs")
+public class SongRevisionResource {
+
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    final private ISongRevisionService songRevisionService;
+
+    final private SongChangeFeed songChangeFeed;
+
+    public SongRevisionResource(ISongRevisionService songRevisionService, SongChangeFeed songChangeFeed) {
+        this.songRevisionService = songRevisionService;
+        this.songChangeFeed = songChangeFeed;
+    }
+
+    @GetMapping("/{id}/revisions")
+    public ResponseEntity<List<SongRevision>> getSongRevisions(@PathVariable Long id,
+                                                               @RequestParam(required = false) Long cursor,
+                                                               @RequestParam(required = false) Integer size) {
+        CursorPage<SongRevision> page = songRevisionService.getSongRevisions(id, cursor, size);
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .toUriString();
+            headers.add(SongResource.NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /*
+     * several songs may change in the same revision : the next page starts after the last song read
+     * within the last revision read, ie since=<revision>&after=<song id>
+     */
+
+    @GetMapping("/changes")
+    public ResponseEntity<List<SongRevision>> getChanges(@RequestParam String since,
+                                                         @RequestParam(required = false) Long after,
+                                                         @RequestParam(required = false) Integer size) {
+        CursorPage<SongRevision> page = songRevisionService.getChanges(since, after, size);
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            List<SongRevision> content = page.getContent();
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("since", page.getNextCursor())
+                    .replaceQueryParam("after", content.get(content.size() - 1).getId())
+                    .toUriString();
+            headers.add(SongResource.NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /*
+     * Server-Sent Events : one "change" event per committed revision, from since (or Last-Event-ID on reconnection,
+     * or now when both are missing) on
+     */
+
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId,
+                                    @RequestParam(required = false) String since) {
+        long afterRevision = songRevisionService.getRevision(lastEventId != null ? lastEventId : since);
+        return songChangeFeed.subscribe(afterRevision);
+    }
+}
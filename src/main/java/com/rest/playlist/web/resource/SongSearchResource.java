@@ -0,0 +1,61 @@
+package com.rest.playlist.web.resource;
+
+import com.rest.playlist.dto.SearchPage;
+import com.rest.playlist.dto.SongResponse;
+import com.rest.playlist.dto.Suggestion;
+import com.rest.playlist.mapper.SongMapper;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.service.ISongSearchService;
+import com.rest.playlist.service.SongServiceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/songs")
+public class SongSearchResource {
+
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    final private ISongSearchService songSearchService;
+
+    final private SongMapper songMapper;
+
+    public SongSearchResource(ISongSearchService songSearchService, SongMapper songMapper) {
+        this.songSearchService = songSearchService;
+        this.songMapper = songMapper;
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<SongResponse>> searchSongs(@RequestParam String q,
+                                                          @RequestParam(required = false) String category,
+                                                          @RequestParam(required = false) String type,
+                                                          @RequestParam(required = false) Integer page,
+                                                          @RequestParam(required = false) Integer size) {
+        SearchPage<Song> songs = songSearchService.searchSongs(q, category, type, page, size);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(TOTAL_COUNT_HEADER, String.valueOf(songs.getTotal()));
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = size == null ? SongServiceImpl.DEFAULT_PAGE_SIZE : Math.min(size, SongServiceImpl.MAX_PAGE_SIZE);
+        if ((long) (pageNumber + 1) * pageSize < songs.getTotal()) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("page", pageNumber + 1)
+                    .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return new ResponseEntity<>(songMapper.toResponses(songs.getContent()), headers, HttpStatus.OK);
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<Suggestion>> autocomplete(@RequestParam String prefix,
+                                                         @RequestParam(required = false) String type,
+                                                         @RequestParam(required = false) Integer limit) {
+        List<Suggestion> suggestions = songSearchService.autocomplete(prefix, type, limit);
+        return new ResponseEntity<>(suggestions, HttpStatus.OK);
+    }
+}
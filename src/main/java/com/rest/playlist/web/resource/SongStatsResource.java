@@ -0,0 +1,23 @@
+package com.rest.playlist.web.resource;
+
+import com.rest.playlist.dto.CatalogStats;
+import com.rest.playlist.service.ISongStatsService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/songs")
+public class SongStatsResource {
+
+    final private ISongStatsService songStatsService;
+
+    public SongStatsResource(ISongStatsService songStatsService) {
+        this.songStatsService = songStatsService;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<CatalogStats> getStats(@RequestParam(required = false) Integer artists) {
+        return new ResponseEntity<>(songStatsService.getStats(artists), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,178 @@
+package com.rest.playlist.web.sse;
+
+import com.rest.playlist.dto.CatalogChange;
+import com.rest.playlist.service.ISongRevisionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events feed of the catalog changes : each subscriber first receives the revisions committed after
+ * its cursor, then the new ones as they are committed, one "change" event per revision, in revision order.
+ * The event id is the revision number : a client reconnecting with Last-Event-ID resumes where it stopped.
+ * A single thread polls the last committed revision every playlist.change-feed.poll-interval-ms and reads
+ * the audit tables only for the subscribers behind it, an idle feed costs one indexed query per poll.
+ * The sends run on playlist.change-feed.sender-threads threads, one task at a time per subscriber and at most
+ * REVISIONS_PER_READ revisions per task : a subscriber further behind is queued again behind the others,
+ * so a slow or far behind replica holds one sender for one read and never stalls the rest of the feed.
+ */
+
+@Component
+public class SongChangeFeed implements InitializingBean, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(SongChangeFeed.class);
+
+    public static final String CHANGE_EVENT = "change";
+    private static final int REVISIONS_PER_READ = 100;
+
+    private final ISongRevisionService songRevisionService;
+    private final long pollIntervalMillis;
+    private final long timeoutMillis;
+    private final int senderThreads;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService senders;
+
+    public SongChangeFeed(ISongRevisionService songRevisionService,
+                          @Value("${playlist.change-feed.poll-interval-ms:500}") long pollIntervalMillis,
+                          @Value("${playlist.change-feed.timeout-ms:300000}") long timeoutMillis,
+                          @Value("${playlist.change-feed.sender-threads:4}") int senderThreads) {
+        this.songRevisionService = songRevisionService;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.senderThreads = senderThreads;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "song-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger senderCount = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "song-change-feed-sender-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    /**
+     * a stream of the changes committed after afterRevision, the client reconnects once the timeout is reached
+     */
+    public SseEmitter subscribe(long afterRevision) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(emitter, afterRevision);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        schedule(subscription);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    private void poll() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        try {
+            long lastRevision = songRevisionService.getLastCommittedRevision();
+            for (Subscription subscription : subscriptions) {
+                if (subscription.afterRevision < lastRevision) {
+                    schedule(subscription);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Change feed : reading the revisions failed, retrying in {} ms", pollIntervalMillis, e);
+        }
+    }
+
+    // a subscriber already queued or sending is left alone, it never has two sends in flight
+    private void schedule(Subscription subscription) {
+        if (!subscription.sending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> {
+                boolean behind = false;
+                try {
+                    behind = send(subscription);
+                } catch (RuntimeException e) {
+                    log.error("Change feed : reading the revisions failed, retrying in {} ms", pollIntervalMillis, e);
+                } finally {
+                    subscription.sending.set(false);
+                }
+                if (behind) {
+                    schedule(subscription);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the feed is shutting down
+            subscription.sending.set(false);
+        }
+    }
+
+    /**
+     * sends one read of changes, returns true when the subscriber is still behind after it
+     */
+    private boolean send(Subscription subscription) {
+        try {
+            List<CatalogChange> changes = songRevisionService.getCatalogChanges(subscription.afterRevision, REVISIONS_PER_READ);
+            for (CatalogChange change : changes) {
+                subscription.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(change.getRevision()))
+                        .name(CHANGE_EVENT)
+                        .data(change, MediaType.APPLICATION_JSON));
+                subscription.afterRevision = change.getRevision();
+            }
+            return changes.size() == REVISIONS_PER_READ && subscriptions.contains(subscription);
+        } catch (IOException | IllegalStateException e) {
+            // the client went away or the stream already completed
+            subscriptions.remove(subscription);
+            subscription.emitter.complete();
+            return false;
+        }
+    }
+
+    private static final class Subscription {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // written by one sender at a time, read by the polling thread
+        private volatile long afterRevision;
+
+        private Subscription(SseEmitter emitter, long afterRevision) {
+            this.emitter = emitter;
+            this.afterRevision = afterRevision;
+        }
+    }
+}
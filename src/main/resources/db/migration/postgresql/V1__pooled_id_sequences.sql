@@ -0,0 +1,19 @@
+-- Song and Melody ids are generated with the pooled-lo optimizer (allocationSize = 50):
+-- each nextval reserves the block [value, value + 49], so the sequence increment must be 50.
+-- Moving the sequence past the highest existing id guarantees the first block never overlaps
+-- rows inserted with allocationSize = 1. On a fresh database the sequences do not exist yet
+-- and this script does nothing : V3 creates them with the right increment.
+
+DO $$
+BEGIN
+    IF to_regclass('song_seq') IS NOT NULL AND to_regclass('songs') IS NOT NULL THEN
+        ALTER SEQUENCE song_seq INCREMENT BY 50;
+        PERFORM setval('song_seq', GREATEST((SELECT last_value FROM song_seq), (SELECT COALESCE(MAX(id), 1) FROM songs)));
+    END IF;
+
+    IF to_regclass('melody_seq') IS NOT NULL AND to_regclass('melody') IS NOT NULL THEN
+        ALTER SEQUENCE melody_seq INCREMENT BY 50;
+        PERFORM setval('melody_seq', GREATEST((SELECT last_value FROM melody_seq), (SELECT COALESCE(MAX(id), 1) FROM melody)));
+    END IF;
+END
+$$;
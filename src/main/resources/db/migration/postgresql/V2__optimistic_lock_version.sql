@@ -0,0 +1,6 @@
+-- Song and Melody carry an optimistic lock version. Existing rows start at version 0;
+-- on a fresh database the tables do not exist yet and V3 creates them with the column.
+-- The audit tables get no version column : Envers does not audit the @Version attribute.
+
+ALTER TABLE IF EXISTS songs ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE IF EXISTS melody ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
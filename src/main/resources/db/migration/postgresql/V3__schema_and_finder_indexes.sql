@@ -0,0 +1,84 @@
+-- From this version on the schema is owned by Flyway and Hibernate only validates it (ddl-auto=validate).
+-- Tables and sequences are created only when missing: databases created by ddl-auto=update already have
+-- them with the same columns, fresh databases get them here.
+
+CREATE SEQUENCE IF NOT EXISTS song_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS melody_seq START WITH 1 INCREMENT BY 50;
+-- Envers revision numbers
+CREATE SEQUENCE IF NOT EXISTS hibernate_sequence START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS melody
+(
+    id         bigint       NOT NULL,
+    created_at timestamp    NOT NULL,
+    updated_at timestamp,
+    version    bigint       NOT NULL DEFAULT 0,
+    duration   varchar(255),
+    pitch      varchar(255),
+    type       varchar(255),
+    CONSTRAINT melody_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS songs
+(
+    id          bigint       NOT NULL,
+    created_at  timestamp    NOT NULL,
+    updated_at  timestamp,
+    version     bigint       NOT NULL DEFAULT 0,
+    artist_name varchar(255),
+    category    varchar(255),
+    description varchar(255),
+    duration    varchar(255),
+    title       varchar(255),
+    melody_id   bigint       NOT NULL,
+    CONSTRAINT songs_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_songs_melody_id UNIQUE (melody_id),
+    CONSTRAINT fk_songs_melody FOREIGN KEY (melody_id) REFERENCES melody (id)
+);
+
+CREATE TABLE IF NOT EXISTS revinfo
+(
+    rev      integer NOT NULL,
+    revtstmp bigint,
+    CONSTRAINT revinfo_pkey PRIMARY KEY (rev)
+);
+
+CREATE TABLE IF NOT EXISTS melody_aud
+(
+    id         bigint  NOT NULL,
+    rev        integer NOT NULL,
+    revtype    smallint,
+    created_at timestamp,
+    updated_at timestamp,
+    duration   varchar(255),
+    pitch      varchar(255),
+    type       varchar(255),
+    CONSTRAINT melody_aud_pkey PRIMARY KEY (id, rev),
+    CONSTRAINT fk_melody_aud_revinfo FOREIGN KEY (rev) REFERENCES revinfo (rev)
+);
+
+CREATE TABLE IF NOT EXISTS songs_aud
+(
+    id          bigint  NOT NULL,
+    rev         integer NOT NULL,
+    revtype     smallint,
+    created_at  timestamp,
+    updated_at  timestamp,
+    artist_name varchar(255),
+    category    varchar(255),
+    description varchar(255),
+    duration    varchar(255),
+    title       varchar(255),
+    melody_id   bigint,
+    CONSTRAINT songs_aud_pkey PRIMARY KEY (id, rev),
+    CONSTRAINT fk_songs_aud_revinfo FOREIGN KEY (rev) REFERENCES revinfo (rev)
+);
+
+-- finders : GET /api/songs/category/{category}, /artist/{artistName} and /melody/type/{type}.
+-- songs.melody_id is already covered by the unique constraint, songs.id by the primary key (keyset pagination).
+CREATE INDEX IF NOT EXISTS idx_songs_category ON songs (category);
+CREATE INDEX IF NOT EXISTS idx_songs_artist_name ON songs (artist_name);
+CREATE INDEX IF NOT EXISTS idx_melody_type ON melody (type);
+
+-- case-insensitive artist lookups, text_pattern_ops also serves prefix matches (lower(artist_name) LIKE 'abc%')
+CREATE INDEX IF NOT EXISTS idx_songs_artist_name_lower ON songs (lower(artist_name) text_pattern_ops);
@@ -0,0 +1,10 @@
+-- GET /api/songs/search : full-text search over title (weight A), artist name (B) and description (C).
+-- The 'simple' configuration neither stems nor drops stop words, titles mix French and English.
+-- Postgres keeps the generated column up to date, the prefix term of the search (term:*) also uses the GIN index.
+ALTER TABLE songs ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(artist_name, '')), 'B') ||
+    setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_songs_search_vector ON songs USING gin (search_vector);
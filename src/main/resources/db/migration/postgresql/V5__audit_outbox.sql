@@ -0,0 +1,15 @@
+-- playlist.audit.mode=async : changes waiting to be written to the Envers audit tables by AuditOutboxWriter.
+-- The entries of one transaction share a tx_id, the writer reads them by id and deletes them once written.
+CREATE SEQUENCE IF NOT EXISTS audit_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS audit_outbox
+(
+    id          bigint        NOT NULL,
+    tx_id       varchar(36)   NOT NULL,
+    entity_type varchar(20)   NOT NULL,
+    entity_id   bigint        NOT NULL,
+    revtype     smallint      NOT NULL,
+    captured_at bigint        NOT NULL,
+    payload     varchar(4000),
+    CONSTRAINT audit_outbox_pkey PRIMARY KEY (id)
+);
@@ -0,0 +1,5 @@
+-- GET /api/songs/changes?since= : the changes of the catalog are read in (rev, id) order from a revision on,
+-- the primary key (id, rev) already serves GET /api/songs/{id}/revisions.
+CREATE INDEX IF NOT EXISTS idx_songs_aud_rev_id ON songs_aud (rev, id);
+-- since=<ISO-8601 instant> : last revision committed at that time
+CREATE INDEX IF NOT EXISTS idx_revinfo_revtstmp ON revinfo (revtstmp);
@@ -0,0 +1,63 @@
+-- durations move from free text ("3:01", "03:56") to milliseconds, so that they can be sorted, filtered
+-- (GET /api/songs?minDuration=&maxDuration=) and aggregated in SQL.
+-- The values are converted with the rules of DurationParser : [h:]m:ss[.SSS], ISO-8601 (PT3M1S) or a number
+-- of milliseconds. Any other value, or a missing song or melody duration, stops the migration before a row
+-- is changed : fix the listed rows by hand and run it again. Each ALTER rewrites its table once.
+CREATE FUNCTION parse_duration_ms(value varchar) RETURNS bigint LANGUAGE sql IMMUTABLE AS
+$$
+SELECT CASE
+           WHEN v ~ '^\d+$' THEN v::bigint
+           WHEN v ~ '^\d+:\d{1,2}:\d{1,2}(\.\d{1,3})?$'
+               THEN round(1000 * (split_part(v, ':', 1)::numeric * 3600 + split_part(v, ':', 2)::numeric * 60
+                   + split_part(v, ':', 3)::numeric))::bigint
+           WHEN v ~ '^\d+:\d{1,2}(\.\d{1,3})?$'
+               THEN round(1000 * (split_part(v, ':', 1)::numeric * 60 + split_part(v, ':', 2)::numeric))::bigint
+           WHEN upper(v) ~ '^PT(?=\d)(\d+H)?(\d+M)?(\d+(\.\d+)?S)?$'
+               THEN round(1000 * extract(EPOCH FROM upper(v)::interval))::bigint
+           END
+FROM (SELECT btrim(value) AS v) AS duration
+$$;
+
+DO
+$$
+DECLARE
+    invalid text;
+BEGIN
+    SELECT string_agg(format('%s id=%s duration=%L', table_name, id, duration), ', ')
+    INTO invalid
+    FROM (SELECT 'songs' AS table_name, id, duration FROM songs
+          WHERE duration IS NULL OR parse_duration_ms(duration) IS NULL
+          UNION ALL
+          SELECT 'melody', id, duration FROM melody
+          WHERE duration IS NULL OR parse_duration_ms(duration) IS NULL
+          UNION ALL
+          SELECT 'songs_aud', id, duration FROM songs_aud
+          WHERE duration IS NOT NULL AND parse_duration_ms(duration) IS NULL
+          UNION ALL
+          SELECT 'melody_aud', id, duration FROM melody_aud
+          WHERE duration IS NOT NULL AND parse_duration_ms(duration) IS NULL
+          LIMIT 20) AS unreadable;
+    IF invalid IS NOT NULL THEN
+        RAISE EXCEPTION 'V7 : durations not readable as [h:]m:ss, ISO-8601 or milliseconds (first 20) : %', invalid;
+    END IF;
+END
+$$;
+
+ALTER TABLE songs ALTER COLUMN duration TYPE bigint USING parse_duration_ms(duration);
+ALTER TABLE songs RENAME COLUMN duration TO duration_ms;
+ALTER TABLE melody ALTER COLUMN duration TYPE bigint USING parse_duration_ms(duration);
+ALTER TABLE melody RENAME COLUMN duration TO duration_ms;
+-- the entities require a duration
+ALTER TABLE songs ALTER COLUMN duration_ms SET NOT NULL;
+ALTER TABLE melody ALTER COLUMN duration_ms SET NOT NULL;
+
+-- the history keeps its values, in the same unit as the current rows
+ALTER TABLE songs_aud ALTER COLUMN duration TYPE bigint USING parse_duration_ms(duration);
+ALTER TABLE songs_aud RENAME COLUMN duration TO duration_ms;
+ALTER TABLE melody_aud ALTER COLUMN duration TYPE bigint USING parse_duration_ms(duration);
+ALTER TABLE melody_aud RENAME COLUMN duration TO duration_ms;
+
+DROP FUNCTION parse_duration_ms(varchar);
+
+-- range filters on the song duration
+CREATE INDEX IF NOT EXISTS idx_songs_duration_ms ON songs (duration_ms);
@@ -0,0 +1,3 @@
+-- change feed : the melodies of a range of revisions are read from melody_aud by rev,
+-- V6 only indexed songs_aud and the primary key (id, rev) of melody_aud cannot serve a range on rev.
+CREATE INDEX IF NOT EXISTS idx_melody_aud_rev ON melody_aud (rev);
@@ -0,0 +1,176 @@
+package com.rest.playlist.audit;
+
+import com.rest.playlist.dto.SongRevision;
+import com.rest.playlist.enums.ChangeType;
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.AuditOutboxRepository;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.ISongRevisionService;
+import com.rest.playlist.web.exception.ServiceUnavailableException;
+import com.rest.playlist.web.interceptor.AuditBacklogInterceptor;
+import org.hibernate.envers.AuditReader;
+import org.hibernate.envers.AuditReaderFactory;
+import org.hibernate.envers.DefaultRevisionEntity;
+import org.hibernate.envers.RevisionType;
+import org.hibernate.envers.query.AuditEntity;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * playlist.audit.mode=async : the changes are only written to the outbox in the request transaction,
+ * the writer is stopped (the scheduled drain never fires) and a new writer started afterwards,
+ * as after a restart, must turn every committed change into its revision.
+ */
+
+@SpringBootTest(properties = {
+        "playlist.audit.mode=async",
+        "playlist.audit.writer.interval-ms=3600000",
+        "playlist.audit.outbox.count-interval-ms=0"
+})
+@RunWith(SpringRunner.class)
+@DirtiesContext
+public class AuditOutboxIntegrationTest {
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private AuditOutboxRepository auditOutboxRepository;
+
+    @Autowired
+    private AuditOutboxWriter auditOutboxWriter;
+
+    @Autowired
+    private ISongRevisionService songRevisionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private Song mySong;
+
+    @Before
+    public void setup() {
+        Melody melody = new Melody();
+        melody.setPitch("Melody Pitch");
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.COLOR);
+
+        mySong = new Song();
+        mySong.setTitle("For The Lover That I Lost");
+        mySong.setDescription("Live At Abbey Road Studios");
+        mySong.setCategory(SongCategory.POP);
+        mySong.setArtistName("Sam Smith");
+        mySong.setDuration(181_000L);
+        mySong.setMelody(melody);
+    }
+
+    @Test
+    public void testNoAuditEventLostOnRestart() throws Exception {
+        Song savedSong = songRepository.saveAndFlush(mySong);
+        Long songId = savedSong.getId();
+        Long melodyId = savedSong.getMelody().getId();
+        savedSong.setTitle("Stay With Me");
+        savedSong = songRepository.saveAndFlush(savedSong);
+        songRepository.delete(savedSong);
+
+        // song added, modified and deleted, melody added and deleted : nothing audited yet
+        assertThat(auditOutboxRepository.count()).isGreaterThanOrEqualTo(5);
+        assertThat(revisions(Song.class, songId)).isEmpty();
+
+        auditOutboxWriter.destroy();
+        long drainedAfter = System.currentTimeMillis();
+        AuditOutboxWriter restartedWriter = new AuditOutboxWriter(auditOutboxRepository, jdbcTemplate, transactionManager,
+                2, 3600000, 100000, 0);
+        applicationContext.getAutowireCapableBeanFactory().autowireBean(restartedWriter);
+        restartedWriter.afterPropertiesSet();
+        try {
+            assertThat(restartedWriter.getPending()).isEqualTo(auditOutboxRepository.count());
+            assertThat(restartedWriter.drainAll()).isGreaterThanOrEqualTo(5);
+        } finally {
+            restartedWriter.destroy();
+        }
+
+        assertThat(auditOutboxRepository.count()).isZero();
+        assertThat(restartedWriter.getPending()).isZero();
+        // the first writer, like another instance, still counts the entries written by the restarted one
+        // until it reads the count of the table again
+        assertThat(auditOutboxWriter.getPending()).isGreaterThanOrEqualTo(5);
+        assertThat(auditOutboxWriter.drain()).isZero();
+        assertThat(auditOutboxWriter.getPending()).isZero();
+
+        List<Object[]> songRevisions = revisions(Song.class, songId);
+        assertThat(songRevisions).extracting(revision -> revision[2])
+                .containsExactly(RevisionType.ADD, RevisionType.MOD, RevisionType.DEL);
+        assertThat(((Song) songRevisions.get(1)[0]).getTitle()).isEqualTo("Stay With Me");
+        assertThat(((Song) songRevisions.get(0)[0]).getCategory()).isEqualTo(SongCategory.POP);
+        assertThat(songRevisions).allMatch(revision -> ((DefaultRevisionEntity) revision[1]).getTimestamp() >= drainedAfter);
+        assertThat(revisions(Melody.class, melodyId)).extracting(revision -> revision[2])
+                .containsExactly(RevisionType.ADD, RevisionType.DEL);
+
+        // read back as SongRevisionServiceIntegrationTest reads the revisions Envers writes in sync mode
+        List<SongRevision> history = songRevisionService.getSongRevisions(songId, null, null).getContent();
+        assertThat(history).extracting(SongRevision::getChangeType)
+                .containsExactly(ChangeType.ADD, ChangeType.MOD, ChangeType.DEL);
+        assertThat(history.get(1).getTitle()).isEqualTo("Stay With Me");
+        assertThat(history.get(1).getMelodyId()).isEqualTo(melodyId);
+        assertThat(history.get(2).getTitle()).isNull();
+    }
+
+    @Test
+    public void testWritesRejectedWhenBacklogIsFull() throws Exception {
+        AuditOutboxWriter fullWriter = mock(AuditOutboxWriter.class);
+        when(fullWriter.isFull()).thenReturn(true);
+        AuditBacklogInterceptor interceptor = new AuditBacklogInterceptor(fullWriter);
+
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/songs"),
+                new MockHttpServletResponse(), null)).isTrue();
+        assertThrows(ServiceUnavailableException.class, () -> interceptor.preHandle(
+                new MockHttpServletRequest("POST", "/api/songs"), new MockHttpServletResponse(), null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> revisions(Class<?> entityClass, Long id) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            AuditReader auditReader = AuditReaderFactory.get(entityManager);
+            return auditReader.createQuery()
+                    .forRevisionsOfEntity(entityClass, false, true)
+                    .add(AuditEntity.id().eq(id))
+                    .addOrder(AuditEntity.revisionNumber().asc())
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.rest.playlist.mapper;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DurationParserTest {
+
+    @Test
+    public void testClockFormats() {
+        assertThat(DurationParser.parseMillis("3:01")).isEqualTo(181_000L);
+        assertThat(DurationParser.parseMillis(" 03:56 ")).isEqualTo(236_000L);
+        assertThat(DurationParser.parseMillis("1:02:03")).isEqualTo(3_723_000L);
+        assertThat(DurationParser.parseMillis("3:01.5")).isEqualTo(181_500L);
+        assertThat(DurationParser.parseMillis("3:01.025")).isEqualTo(181_025L);
+    }
+
+    @Test
+    public void testIsoAndMilliseconds() {
+        assertThat(DurationParser.parseMillis("PT3M1S")).isEqualTo(181_000L);
+        assertThat(DurationParser.parseMillis("pt1h")).isEqualTo(3_600_000L);
+        assertThat(DurationParser.parseMillis("181000")).isEqualTo(181_000L);
+    }
+
+    @Test
+    public void testInvalidDurations() {
+        assertThat(DurationParser.parseMillis(null)).isNull();
+        assertThat(DurationParser.parseMillis("")).isNull();
+        assertThat(DurationParser.parseMillis("trois minutes")).isNull();
+        assertThat(DurationParser.parseMillis("3:1:2:3")).isNull();
+        assertThat(DurationParser.parseMillis("PT")).isNull();
+        assertThat(DurationParser.parseMillis("-PT3M")).isNull();
+        assertThat(DurationParser.parseMillis("99999999999999999999")).isNull();
+    }
+
+    @Test
+    public void testFormatMatchesTheParser() {
+        for (String duration : new String[]{"3:01", " 03:56 ", "1:02:03.5", "PT3M1S", "181000"}) {
+            assertThat(duration.matches(DurationParser.FORMAT)).as(duration).isTrue();
+        }
+        for (String duration : new String[]{"", " ", "trois minutes", "PT", "3:"}) {
+            assertThat(duration.matches(DurationParser.FORMAT)).as(duration).isFalse();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.rest.playlist.mapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.dto.MelodyRequest;
+import com.rest.playlist.dto.SongRequest;
+import com.rest.playlist.dto.SongResponse;
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SongMapperTest {
+
+    private final SongMapper songMapper = Mappers.getMapper(SongMapper.class);
+
+    private Song mySong;
+
+    @Before
+    public void setup() {
+        Melody melody = new Melody();
+        melody.setId(2000L);
+        melody.setPitch("Melody Pitch");
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.COLOR);
+        melody.setVersion(1L);
+
+        mySong = new Song();
+        mySong.setId(1000L);
+        mySong.setTitle("For The Lover That I Lost");
+        mySong.setDescription("Live At Abbey Road Studios");
+        mySong.setCategory(SongCategory.POP);
+        mySong.setArtistName("Sam Smith");
+        mySong.setDuration(181_000L);
+        mySong.setMelody(melody);
+        mySong.setVersion(3L);
+    }
+
+    @Test
+    public void testResponseKeepsTheEntityJsonShape() {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        JsonNode entityJson = objectMapper.valueToTree(mySong);
+        JsonNode responseJson = objectMapper.valueToTree(songMapper.toResponse(mySong));
+
+        assertThat(responseJson).isEqualTo(entityJson);
+    }
+
+    @Test
+    public void testRequestToEntity() {
+        MelodyRequest melodyRequest = new MelodyRequest();
+        melodyRequest.setPitch("Melody Pitch");
+        melodyRequest.setDuration("03:56");
+        melodyRequest.setType(MelodyType.BLENDS);
+
+        SongRequest songRequest = new SongRequest();
+        songRequest.setId(1000L);
+        songRequest.setTitle("Stay With Me");
+        songRequest.setDescription("In The Lonely Hour");
+        songRequest.setDuration("2:52");
+        songRequest.setArtistName("Sam Smith");
+        songRequest.setCategory(SongCategory.POP);
+        songRequest.setMelody(melodyRequest);
+        songRequest.setVersion(4L);
+
+        Song song = songMapper.toEntity(songRequest);
+
+        assertThat(song.getId()).isEqualTo(1000L);
+        assertThat(song.getTitle()).isEqualTo("Stay With Me");
+        assertThat(song.getCategory()).isEqualTo(SongCategory.POP);
+        assertThat(song.getVersion()).isEqualTo(4L);
+        assertThat(song.getDuration()).isEqualTo(172_000L);
+        assertThat(song.getMelody().getDuration()).isEqualTo(236_000L);
+        assertThat(song.getCreateAt()).isNotNull();
+        assertThat(song.getMelody().getId()).isNull();
+        assertThat(song.getMelody().getType()).isEqualTo(MelodyType.BLENDS);
+    }
+
+    @Test
+    public void testNullMelodyAndNullSong() {
+        mySong.setMelody(null);
+
+        SongResponse response = songMapper.toResponse(mySong);
+
+        assertThat(response.getMelody()).isNull();
+        assertThat(songMapper.toResponse((Song) null)).isNull();
+        assertThat(songMapper.toEntity((SongRequest) null)).isNull();
+    }
+
+    @Test
+    public void testResponsesKeepOrder() {
+        Song otherSong = new Song();
+        otherSong.setId(1001L);
+
+        List<SongResponse> responses = songMapper.toResponses(Arrays.asList(mySong, otherSong));
+
+        assertThat(responses).extracting(SongResponse::getId).containsExactly(1000L, 1001L);
+        assertThat(songMapper.toResponses(Collections.emptyList())).isEmpty();
+    }
+}
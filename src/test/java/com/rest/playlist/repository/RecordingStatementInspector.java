@@ -0,0 +1,33 @@
+package com.rest.playlist.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * keeps the SQL generated by Hibernate so the query plan tests can EXPLAIN the exact statements of the finders
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        STATEMENTS.clear();
+    }
+
+    static String lastSelect() {
+        for (int i = STATEMENTS.size() - 1; i >= 0; i--) {
+            if (STATEMENTS.get(i).trim().toLowerCase().startsWith("select")) {
+                return STATEMENTS.get(i);
+            }
+        }
+        throw new IllegalStateException("no select statement recorded");
+    }
+}
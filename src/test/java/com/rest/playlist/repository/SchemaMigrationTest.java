@@ -0,0 +1,91 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import org.flywaydb.core.Flyway;
+import org.junit.Assume;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+import org.junit.rules.TestRule;
+import org.junit.runner.RunWith;
+import org.junit.runners.model.Statement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * applies the Flyway migrations to an empty PostgreSQL database and lets Hibernate validate the entities
+ * against the result, as in production (ddl-auto=validate) : a migration drifting from the mapping
+ * fails the context and this test. The H2 tests build their schema from the entities and cannot catch it.
+ * Skipped when no Docker environment is found.
+ */
+
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.locations=classpath:db/migration/{vendor}",
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=0",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.datasource.driverClassName=org.postgresql.Driver"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@RunWith(SpringRunner.class)
+public class SchemaMigrationTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:13-alpine");
+
+    private static final TestRule REQUIRES_DOCKER = (base, description) -> new Statement() {
+        @Override
+        public void evaluate() throws Throwable {
+            Assume.assumeTrue("no Docker environment", DockerClientFactory.instance().isDockerAvailable());
+            base.evaluate();
+        }
+    };
+
+    @ClassRule
+    public static final TestRule CONTAINER = RuleChain.outerRule(REQUIRES_DOCKER).around(POSTGRES);
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Test
+    public void testMigrationsMatchTheEntities() {
+        assertThat(flyway.info().pending()).isEmpty();
+
+        Melody melody = new Melody();
+        melody.setPitch("Migrated pitch");
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.COLOR);
+        Song song = new Song();
+        song.setTitle("Migrated song");
+        song.setDescription("Migrated description");
+        song.setCategory(SongCategory.POP);
+        song.setArtistName("Migrated Artist");
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+
+        Song savedSong = songRepository.saveAndFlush(song);
+        assertThat(songRepository.findSongByMelody_Id(savedSong.getMelody().getId())).isPresent();
+    }
+}
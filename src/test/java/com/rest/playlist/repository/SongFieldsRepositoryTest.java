@@ -0,0 +1,101 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import org.hibernate.Session;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.rest.playlist.repository.RecordingStatementInspector")
+@RunWith(SpringRunner.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class SongFieldsRepositoryTest {
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private Song savedSong;
+
+    @Before
+    public void setup() {
+        Melody melody = new Melody();
+        melody.setPitch("Fields pitch");
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.BLENDS);
+
+        Song song = new Song();
+        song.setTitle("Fields song");
+        song.setDescription("Fields description");
+        song.setCategory(SongCategory.JAZZ);
+        song.setArtistName("Fields Artist");
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+        savedSong = songRepository.saveAndFlush(song);
+        testEntityManager.clear();
+        RecordingStatementInspector.clear();
+    }
+
+    @Test
+    public void testSelectsOnlyRequestedSongColumns() {
+        List<SongFieldsRow> rows = songRepository.findSongFields(SongFields.parse("title,category"),
+                SongFilter.builder().artistName("Fields Artist").build(), null);
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getId()).isEqualTo(savedSong.getId());
+        assertThat(rows.get(0).getValues()).containsOnlyKeys("title", "category");
+        assertThat(rows.get(0).getValues()).containsEntry("title", "Fields song").containsEntry("category", SongCategory.JAZZ);
+
+        String sql = RecordingStatementInspector.lastSelect().toLowerCase();
+        assertThat(sql).doesNotContain("melody").doesNotContain("description").doesNotContain(" join ");
+        assertThat(testEntityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    public void testMelodyIdIsReadFromTheForeignKey() {
+        List<SongFieldsRow> rows = songRepository.findSongFields(SongFields.parse("title,melody.id"),
+                SongFilter.builder().artistName("Fields Artist").build(), null);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> melody = (Map<String, Object>) rows.get(0).getValues().get("melody");
+        assertThat(melody).containsOnlyKeys("id").containsEntry("id", savedSong.getMelody().getId());
+        assertThat(RecordingStatementInspector.lastSelect().toLowerCase()).doesNotContain(" join ");
+    }
+
+    @Test
+    public void testMelodyColumnsAreJoined() {
+        List<SongFieldsRow> rows = songRepository.findSongFields(SongFields.parse("title,melody.type"),
+                SongFilter.builder().melodyType(MelodyType.BLENDS).artistName("Fields Artist").build(), null);
+
+        assertThat(rows).hasSize(1);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> melody = (Map<String, Object>) rows.get(0).getValues().get("melody");
+        assertThat(melody).containsEntry("type", MelodyType.BLENDS);
+        assertThat(RecordingStatementInspector.lastSelect().toLowerCase()).contains(" join ");
+    }
+
+    @Test
+    public void testUnknownFieldIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SongFields.parse("title,password"));
+        assertThrows(IllegalArgumentException.class, () -> SongFields.parse(" , "));
+        assertThrows(IllegalArgumentException.class, () -> SongFields.parse("title,createAt"));
+        assertThrows(IllegalArgumentException.class, () -> SongFields.parse("melody.updatedAt"));
+    }
+}
@@ -0,0 +1,162 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import org.hibernate.SessionFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * runs EXPLAIN ANALYZE on the SQL generated for each finder and fails when a table is scanned
+ * beyond MAX_SCANNED_ROWS : the seeded tables are much larger, so only an index lookup stays under it.
+ */
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.rest.playlist.repository.RecordingStatementInspector")
+@RunWith(SpringRunner.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SongRepositoryQueryPlanTest {
+
+    private static final int SEEDED_SONGS = 500;
+    private static final int MATCHING_SONGS = 5;
+    private static final int MAX_SCANNED_ROWS = 100;
+    private static final String ARTIST = "Query Plan Artist";
+    private static final String FILLER_ARTIST = "Query Plan Filler";
+
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<Song> savedSongs = new ArrayList<>();
+
+    @Before
+    public void setup() throws SQLException {
+        List<Song> songs = new ArrayList<>();
+        for (int i = 0; i < SEEDED_SONGS; i++) {
+            boolean matching = i < MATCHING_SONGS;
+
+            Melody melody = new Melody();
+            melody.setPitch("Query plan pitch " + i);
+            melody.setDuration(236_000L);
+            melody.setType(matching ? MelodyType.DIRECTION : MelodyType.COLOR);
+
+            Song song = new Song();
+            song.setTitle("Query plan song " + i);
+            song.setDescription("Query plan");
+            song.setCategory(matching ? SongCategory.CLASSICAL : SongCategory.JAZZ);
+            song.setArtistName(matching ? ARTIST : FILLER_ARTIST + " " + i);
+            song.setDuration(181_000L);
+            song.setMelody(melody);
+            songs.add(song);
+        }
+        savedSongs.addAll(songRepository.saveAll(songs));
+
+        // refreshes the selectivity statistics the H2 planner relies on
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        RecordingStatementInspector.clear();
+    }
+
+    @After
+    public void cleanup() {
+        songRepository.deleteAll(savedSongs);
+    }
+
+    @Test
+    public void findSongsByCategoryShouldUseIndex() throws SQLException {
+        assertThat(songRepository.findSongsByCategory(SongCategory.CLASSICAL)).hasSizeGreaterThanOrEqualTo(MATCHING_SONGS);
+        assertNoFullScan(SongCategory.CLASSICAL.name());
+    }
+
+    @Test
+    public void findSongsByArtistNameShouldUseIndex() throws SQLException {
+        assertThat(songRepository.findSongsByArtistName(ARTIST)).hasSize(MATCHING_SONGS);
+        assertNoFullScan(ARTIST);
+    }
+
+    @Test
+    public void findSongsByMelodyTypeShouldUseIndex() throws SQLException {
+        assertThat(songRepository.findSongsByMelody_Type(MelodyType.DIRECTION)).hasSizeGreaterThanOrEqualTo(MATCHING_SONGS);
+        assertNoFullScan(MelodyType.DIRECTION.name());
+    }
+
+    @Test
+    public void findSongByMelodyIdShouldUseIndex() throws SQLException {
+        Long melodyId = savedSongs.get(0).getMelody().getId();
+        assertThat(songRepository.findSongByMelody_Id(melodyId)).isPresent();
+        assertNoFullScan(melodyId);
+    }
+
+    @Test
+    public void findSongsAfterCursorShouldUseIndex() throws SQLException {
+        Long cursor = savedSongs.get(SEEDED_SONGS / 2).getId();
+        assertThat(songRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, 10))).hasSize(10);
+        assertNoFullScan(cursor, 10);
+    }
+
+    private void assertNoFullScan(Object... parameters) throws SQLException {
+        String sql = RecordingStatementInspector.lastSelect();
+        String plan = explainAnalyze(sql, parameters);
+
+        Matcher matcher = SCAN_COUNT.matcher(plan);
+        int tables = 0;
+        while (matcher.find()) {
+            tables++;
+            assertThat(Integer.parseInt(matcher.group(1)))
+                    .as("rows scanned by %s%nplan : %s", sql, plan)
+                    .isLessThanOrEqualTo(MAX_SCANNED_ROWS);
+        }
+        assertThat(tables).as("scan counts in plan %s", plan).isGreaterThan(0);
+    }
+
+    private String explainAnalyze(String sql, Object... parameters) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN ANALYZE " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1));
+                }
+                return plan.toString();
+            }
+        }
+    }
+}
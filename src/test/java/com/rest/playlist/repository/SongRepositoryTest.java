@@ -4,14 +4,18 @@ import com.rest.playlist.enums.MelodyType;
 import com.rest.playlist.enums.SongCategory;
 import com.rest.playlist.model.Melody;
 import com.rest.playlist.model.Song;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -28,6 +32,10 @@ public class SongRepositoryTest {
 
     @Autowired
     SongRepository songRepository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
     private Song savedSong;
 
     @Before
@@ -35,7 +43,7 @@ public class SongRepositoryTest {
 
         Melody melody = new Melody();
         melody.setPitch("Melody Pitch");
-        melody.setDuration("03:56");
+        melody.setDuration(236_000L);
         melody.setType(MelodyType.COLOR);
 
         Song song =  new Song();
@@ -43,7 +51,7 @@ public class SongRepositoryTest {
         song.setDescription("Live At Abbey Road Studios");
         song.setCategory(SongCategory.POP);
         song.setArtistName("Sam Smith");
-        song.setDuration("3:01");
+        song.setDuration(181_000L);
         song.setMelody(melody);
 
         savedSong = songRepository.save(song);
@@ -51,10 +59,10 @@ public class SongRepositoryTest {
         assertThat(savedSong).hasFieldOrPropertyWithValue("title", "For The Lover That I Lost");
         assertThat(savedSong).hasFieldOrPropertyWithValue("description", "Live At Abbey Road Studios");
         assertThat(savedSong).hasFieldOrPropertyWithValue("category", SongCategory.POP);
-        assertThat(savedSong).hasFieldOrPropertyWithValue("duration", "3:01");
+        assertThat(savedSong).hasFieldOrPropertyWithValue("duration", 181_000L);
         assertThat(savedSong).hasFieldOrPropertyWithValue("artistName", "Sam Smith");
         assertThat(savedSong).hasFieldOrPropertyWithValue("melody.pitch", "Melody Pitch");
-        assertThat(savedSong).hasFieldOrPropertyWithValue("melody.duration", "03:56");
+        assertThat(savedSong).hasFieldOrPropertyWithValue("melody.duration", 236_000L);
         assertThat(savedSong).hasFieldOrPropertyWithValue("melody.type", MelodyType.COLOR);
     }
 
@@ -67,6 +75,19 @@ public class SongRepositoryTest {
         assertThat(songs.get(songs.size() - 1).getId()).isNotNull();
     }
 
+    @Test
+    public void shouldFindSongsAfterCursor() {
+        List<Song> firstPage = songRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1));
+        assertThat(firstPage).hasSize(1);
+
+        List<Song> nextPage = songRepository.findByIdGreaterThanOrderByIdAsc(savedSong.getId() - 1, PageRequest.of(0, 10));
+        assertThat(nextPage).isNotEmpty();
+        assertThat(nextPage.get(0)).isEqualTo(savedSong);
+
+        List<Song> afterLast = songRepository.findByIdGreaterThanOrderByIdAsc(savedSong.getId(), PageRequest.of(0, 10));
+        assertThat(afterLast).doesNotContain(savedSong);
+    }
+
     @Test
     public void shouldFindSongsByCategory() {
         List<Song> songs = songRepository.findSongsByCategory(savedSong.getCategory());
@@ -128,7 +149,7 @@ public class SongRepositoryTest {
 
         Melody melody = new Melody();
         melody.setPitch("Melody Pitch test");
-        melody.setDuration("07:56");
+        melody.setDuration(476_000L);
         melody.setType(MelodyType.DIRECTION);
 
         Song songToSave = new Song();
@@ -136,7 +157,7 @@ public class SongRepositoryTest {
         songToSave.setDescription("Album musical d'Ennio Morricone");
         songToSave.setCategory(SongCategory.CLASSICAL);
         songToSave.setArtistName("Morricone");
-        songToSave.setDuration("7:10");
+        songToSave.setDuration(430_000L);
         songToSave.setMelody(melody);
 
         Song song = songRepository.save(songToSave);
@@ -147,14 +168,41 @@ public class SongRepositoryTest {
         assertThat(song).hasFieldOrPropertyWithValue("title", "The Falls");
         assertThat(song).hasFieldOrPropertyWithValue("description", "Album musical d'Ennio Morricone");
         assertThat(song).hasFieldOrPropertyWithValue("category", SongCategory.CLASSICAL);
-        assertThat(song).hasFieldOrPropertyWithValue("duration", "7:10");
+        assertThat(song).hasFieldOrPropertyWithValue("duration", 430_000L);
         assertThat(song).hasFieldOrPropertyWithValue("artistName", "Morricone");
         assertThat(savedSong).hasFieldOrPropertyWithValue("melody.pitch", "Melody Pitch");
-        assertThat(savedSong).hasFieldOrPropertyWithValue("melody.duration", "03:56");
+        assertThat(savedSong).hasFieldOrPropertyWithValue("melody.duration", 236_000L);
         assertThat(savedSong).hasFieldOrPropertyWithValue("melody.type", MelodyType.COLOR);
 
     }
 
+    @Test
+    public void shouldAllocateIdsFromPooledSequences() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        for (int i = 0; i < 10; i++) {
+            Melody melody = new Melody();
+            melody.setPitch("Pooled pitch " + i);
+            melody.setDuration(150_000L);
+            melody.setType(MelodyType.BLENDS);
+
+            Song song = new Song();
+            song.setTitle("Pooled song " + i);
+            song.setDescription("pooled-lo ids");
+            song.setCategory(SongCategory.JAZZ);
+            song.setArtistName("Pooled Artist");
+            song.setDuration(150_000L);
+            song.setMelody(melody);
+            assertThat(songRepository.save(song).getId()).isNotNull();
+        }
+
+        // inserts are deferred to the flush, only sequence calls are issued here:
+        // ten songs and melodies fit in at most two blocks of 50 ids per sequence
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
     @Test
     public void shouldUpdateSong() {
 
@@ -0,0 +1,109 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * every repository call and lookup runs in its own session here, so a read without SQL can only come from the second-level cache
+ */
+@SpringBootTest
+@RunWith(SpringRunner.class)
+public class SongSecondLevelCacheTest {
+
+    private static final String ARTIST = "Second Level Artist";
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Song savedSong;
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+        Melody melody = new Melody();
+        melody.setPitch("Second level pitch");
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.BLENDS);
+
+        Song song = new Song();
+        song.setTitle("Second level song");
+        song.setDescription("Second level description");
+        song.setCategory(SongCategory.JAZZ);
+        song.setArtistName(ARTIST);
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+        savedSong = songRepository.save(song);
+
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @After
+    public void cleanup() {
+        songRepository.deleteAll(songRepository.findSongsByArtistName(ARTIST));
+    }
+
+    @Test
+    public void shouldServeRepeatedFindFromSecondLevelCache() {
+        findSongAndMelodyPitch(savedSong.getId());
+
+        statistics.clear();
+        String melodyPitch = findSongAndMelodyPitch(savedSong.getId());
+
+        assertThat(melodyPitch).isEqualTo("Second level pitch");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldServeRepeatedEnumFindersFromQueryCache() {
+        List<Song> songsByCategory = songRepository.findSongsByCategory(SongCategory.JAZZ);
+        List<Song> songsByType = songRepository.findSongsByMelody_Type(MelodyType.BLENDS);
+
+        statistics.clear();
+
+        assertThat(songRepository.findSongsByCategory(SongCategory.JAZZ)).hasSameSizeAs(songsByCategory);
+        assertThat(songRepository.findSongsByMelody_Type(MelodyType.BLENDS)).hasSameSizeAs(songsByType);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldInvalidateQueryCacheOnWrite() {
+        int before = songRepository.findSongsByCategory(SongCategory.JAZZ).size();
+
+        songRepository.delete(savedSong);
+
+        assertThat(songRepository.findSongsByCategory(SongCategory.JAZZ)).hasSize(before - 1);
+    }
+
+    private String findSongAndMelodyPitch(Long id) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.find(Song.class, id).getMelody().getPitch();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
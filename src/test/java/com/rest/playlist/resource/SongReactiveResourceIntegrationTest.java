@@ -0,0 +1,120 @@
+package com.rest.playlist.resource;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.web.resource.SongResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "playlist.reactive.enabled=true",
+        "playlist.reactive.r2dbc.url=r2dbc:h2:mem:///test_playlist_song_melody_db",
+        "playlist.reactive.r2dbc.username=playlistadmin",
+        "playlist.reactive.r2dbc.password=admin"
+})
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class SongReactiveResourceIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    private Song savedSong;
+
+    @Before
+    public void setup() {
+        Melody melody = new Melody();
+        melody.setPitch("Reactive pitch");
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.DIRECTION);
+
+        Song song = new Song();
+        song.setTitle("Reactive song");
+        song.setDescription("Reactive description");
+        song.setCategory(SongCategory.CLASSICAL);
+        song.setArtistName("Reactive Artist");
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+        savedSong = songRepository.saveAndFlush(song);
+    }
+
+    @After
+    public void cleanup() {
+        songRepository.delete(savedSong);
+    }
+
+    @Test
+    public void testGetSongById() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/reactive/songs/{id}", savedSong.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Reactive song")))
+                .andExpect(jsonPath("$.category", is("CLASSICAL")))
+                .andExpect(jsonPath("$.melody.id", is(savedSong.getMelody().getId().intValue())))
+                .andExpect(jsonPath("$.melody.type", is("DIRECTION")));
+    }
+
+    @Test
+    public void testGetSongsByArtist() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/reactive/songs/artist/{artistName}", "Reactive Artist")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].melody.pitch", is("Reactive pitch")));
+    }
+
+    @Test
+    public void testStreamSongsByMelodyType() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/reactive/songs/melody/type/{type}", "direction")
+                .accept(SongResource.NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"title\":\"Reactive song\"")));
+    }
+
+    @Test
+    public void testGetNotFoundSong() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/reactive/songs/{id}", 1000))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("message").value("Not found song with id = 1000"));
+    }
+}
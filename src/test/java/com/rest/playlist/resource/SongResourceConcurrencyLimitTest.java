@@ -0,0 +1,68 @@
+package com.rest.playlist.resource;
+
+import com.rest.playlist.mapper.SongMapper;
+import com.rest.playlist.service.ISongBatchService;
+import com.rest.playlist.service.ISongService;
+import com.rest.playlist.web.exception.ServiceExceptionHandler;
+import com.rest.playlist.web.interceptor.ConcurrencyLimitInterceptor;
+import com.rest.playlist.web.resource.SongResource;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class SongResourceConcurrencyLimitTest {
+
+    private MockMvc mockMvc;
+    private ConcurrencyLimitInterceptor interceptor;
+
+    @Before
+    public void setup() {
+        ISongService songService = mock(ISongService.class);
+        when(songService.getAllSongs()).thenReturn(Collections.emptyList());
+
+        interceptor = new ConcurrencyLimitInterceptor(1, 0);
+        this.mockMvc = MockMvcBuilders.standaloneSetup(new SongResource(songService, mock(ISongBatchService.class), Mappers.getMapper(SongMapper.class)))
+                .setControllerAdvice(new ServiceExceptionHandler())
+                .addInterceptors(interceptor)
+                .build();
+    }
+
+    @Test
+    public void testRequestIsRejectedWhenNoSlotIsAvailable() throws Exception {
+        MockHttpServletRequest inProgress = new MockHttpServletRequest();
+        interceptor.preHandle(inProgress, new MockHttpServletResponse(), null);
+
+        mockMvc.perform(get("/api/songs"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.statusCode").value(503));
+
+        interceptor.afterCompletion(inProgress, new MockHttpServletResponse(), null, null);
+
+        mockMvc.perform(get("/api/songs"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testSlotIsReleasedAfterEachRequest() throws Exception {
+        mockMvc.perform(get("/api/songs")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/songs")).andExpect(status().isOk());
+
+        assertThat(interceptor.availablePermits()).isEqualTo(1);
+    }
+}
@@ -1,13 +1,17 @@
 package com.rest.playlist.resource;
 
+import com.rest.playlist.dto.SongPatch;
 import com.rest.playlist.enums.SongCategory;
 import com.rest.playlist.enums.MelodyType;
 import com.rest.playlist.web.exception.ServiceExceptionHandler;
+import com.rest.playlist.mapper.SongMapper;
 import com.rest.playlist.model.Melody;
 import com.rest.playlist.model.Song;
 import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.ISongBatchService;
 import com.rest.playlist.service.ISongService;
 import com.rest.playlist.web.resource.SongResource;
+import org.hibernate.envers.AuditReaderFactory;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -15,18 +19,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
 import java.util.List;
 
 import static com.rest.playlist.TestUtils.asJsonString;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -46,12 +57,21 @@ public class SongResourceIntegrationTest {
     @Autowired
     private ISongService songService;
 
+    @Autowired
+    private ISongBatchService songBatchService;
+
+    @Autowired
+    private SongMapper songMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Song mySong;
 
     @Before
     public void setup() {
 
-        SongResource songResource = new SongResource(songService);
+        SongResource songResource = new SongResource(songService, songBatchService, songMapper);
         this.mockMvc = MockMvcBuilders.standaloneSetup(songResource)
                 .setControllerAdvice(serviceExceptionHandler)
                 .build();
@@ -59,7 +79,7 @@ public class SongResourceIntegrationTest {
 
         Melody melody = new Melody();
         melody.setPitch("Melody Pitch");
-        melody.setDuration("03:56");
+        melody.setDuration(236_000L);
         melody.setType(MelodyType.COLOR);
 
         mySong =  new Song();
@@ -67,7 +87,7 @@ public class SongResourceIntegrationTest {
         mySong.setDescription("Live At Abbey Road Studios");
         mySong.setCategory(SongCategory.POP);
         mySong.setArtistName("Sam Smith");
-        mySong.setDuration("3:01");
+        mySong.setDuration(181_000L);
         mySong.setMelody(melody);
 
     }
@@ -81,13 +101,35 @@ public class SongResourceIntegrationTest {
                 .andExpect(jsonPath("$.[*].title").value(hasItem(savedSong.getTitle())))
                 .andExpect(jsonPath("$.[*].description").value(hasItem(savedSong.getDescription())))
                 .andExpect(jsonPath("$.[*].category").value(hasItem(savedSong.getCategory().toString())))
-                .andExpect(jsonPath("$.[*].duration").value(hasItem(savedSong.getDuration())))
+                .andExpect(jsonPath("$.[*].duration").value(hasItem(savedSong.getDuration().intValue())))
                 .andExpect(jsonPath("$.[*].artistName").value(hasItem(savedSong.getArtistName())))
                 .andExpect(jsonPath("$.[*].melody.pitch").value(hasItem(savedSong.getMelody().getPitch())))
-                .andExpect(jsonPath("$.[*].melody.duration").value(hasItem(savedSong.getMelody().getDuration())))
+                .andExpect(jsonPath("$.[*].melody.duration").value(hasItem(savedSong.getMelody().getDuration().intValue())))
                 .andExpect(jsonPath("$.[*].melody.type").value(hasItem(savedSong.getMelody().getType().toString())));
     }
 
+    @Test
+    public void testGetSongsPage() throws Exception {
+        Song savedSong = songRepository.saveAndFlush(mySong);
+        mockMvc.perform(get("/api/songs")
+                .param("cursor", String.valueOf(savedSong.getId() - 1))
+                .param("size", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(savedSong.getId()))
+                .andExpect(jsonPath("$[0].melody.pitch").value(savedSong.getMelody().getPitch()))
+                .andExpect(header().doesNotExist(SongResource.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void testGetSongsPageWithInvalidSize() throws Exception {
+        mockMvc.perform(get("/api/songs?size=0")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("message").value("size doit être supérieur à 0"));
+    }
+
     @Test
     public void testGetEmptyListSongs() throws Exception {
         songRepository.deleteAll();
@@ -106,10 +148,10 @@ public class SongResourceIntegrationTest {
                 .andExpect(jsonPath("$.[*].title").value(hasItem(savedSong.getTitle())))
                 .andExpect(jsonPath("$.[*].description").value(hasItem(savedSong.getDescription())))
                 .andExpect(jsonPath("$.[*].category").value(hasItem(savedSong.getCategory().toString())))
-                .andExpect(jsonPath("$.[*].duration").value(hasItem(savedSong.getDuration())))
+                .andExpect(jsonPath("$.[*].duration").value(hasItem(savedSong.getDuration().intValue())))
                 .andExpect(jsonPath("$.[*].artistName").value(hasItem(savedSong.getArtistName())))
                 .andExpect(jsonPath("$.[*].melody.pitch").value(hasItem(savedSong.getMelody().getPitch())))
-                .andExpect(jsonPath("$.[*].melody.duration").value(hasItem(savedSong.getMelody().getDuration())))
+                .andExpect(jsonPath("$.[*].melody.duration").value(hasItem(savedSong.getMelody().getDuration().intValue())))
                 .andExpect(jsonPath("$.[*].melody.type").value(hasItem(savedSong.getMelody().getType().toString())));
     }
 
@@ -132,14 +174,36 @@ public class SongResourceIntegrationTest {
                 .andExpect(jsonPath("$.[*].title").value(hasItem(savedSong.getTitle())))
                 .andExpect(jsonPath("$.[*].description").value(hasItem(savedSong.getDescription())))
                 .andExpect(jsonPath("$.[*].category").value(hasItem(savedSong.getCategory().toString())))
-                .andExpect(jsonPath("$.[*].duration").value(hasItem(savedSong.getDuration())))
+                .andExpect(jsonPath("$.[*].duration").value(hasItem(savedSong.getDuration().intValue())))
                 .andExpect(jsonPath("$.[*].artistName").value(hasItem(savedSong.getArtistName())))
                 .andExpect(jsonPath("$.[*].melody.pitch").value(hasItem(savedSong.getMelody().getPitch())))
-                .andExpect(jsonPath("$.[*].melody.duration").value(hasItem(savedSong.getMelody().getDuration())))
+                .andExpect(jsonPath("$.[*].melody.duration").value(hasItem(savedSong.getMelody().getDuration().intValue())))
                 .andExpect(jsonPath("$.[*].melody.type").value(hasItem(savedSong.getMelody().getType().toString())));
     }
 
 
+    @Test
+    public void testGetSongsByArtistNameWithFields() throws Exception {
+        Song savedSong = songRepository.saveAndFlush(mySong);
+
+        mockMvc.perform(get("/api/songs/artist/{artist}", savedSong.getArtistName())
+                .param("fields", "title,melody.type")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.[*].title").value(hasItem(savedSong.getTitle())))
+                .andExpect(jsonPath("$.[*].melody.type").value(hasItem(savedSong.getMelody().getType().toString())))
+                .andExpect(jsonPath("$.[*].description").doesNotExist())
+                .andExpect(jsonPath("$.[*].melody.pitch").doesNotExist());
+    }
+
+    @Test
+    public void testGetSongsWithUnknownField() throws Exception {
+        mockMvc.perform(get("/api/songs").param("fields", "title,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("message").value("fields : champ inconnu ou vide = password"));
+    }
+
     @Test
     public void testGetSongsByMelodyId() throws Exception {
         Song savedSong = songRepository.saveAndFlush(mySong);
@@ -149,10 +213,10 @@ public class SongResourceIntegrationTest {
                 .andExpect(jsonPath("$.title").value(savedSong.getTitle()))
                 .andExpect(jsonPath("$.description").value(savedSong.getDescription()))
                 .andExpect(jsonPath("$.category").value(savedSong.getCategory().toString()))
-                .andExpect(jsonPath("$.duration").value(savedSong.getDuration()))
+                .andExpect(jsonPath("$.duration").value(savedSong.getDuration().intValue()))
                 .andExpect(jsonPath("$.artistName").value(savedSong.getArtistName()))
                 .andExpect(jsonPath(".melody.pitch").value(savedSong.getMelody().getPitch()))
-                .andExpect(jsonPath(".melody.duration").value(savedSong.getMelody().getDuration()))
+                .andExpect(jsonPath(".melody.duration").value(savedSong.getMelody().getDuration().intValue()))
                 .andExpect(jsonPath(".melody.type").value(savedSong.getMelody().getType().toString()));
     }
 
@@ -171,10 +235,10 @@ public class SongResourceIntegrationTest {
                 .andExpect(jsonPath("$.[*].title").value(hasItem(savedSong.getTitle())))
                 .andExpect(jsonPath("$.[*].description").value(hasItem(savedSong.getDescription())))
                 .andExpect(jsonPath("$.[*].category").value(hasItem(savedSong.getCategory().toString())))
-                .andExpect(jsonPath("$.[*].duration").value(hasItem(savedSong.getDuration())))
+                .andExpect(jsonPath("$.[*].duration").value(hasItem(savedSong.getDuration().intValue())))
                 .andExpect(jsonPath("$.[*].artistName").value(hasItem(savedSong.getArtistName())))
                 .andExpect(jsonPath("$[*].melody.pitch").value(hasItem(savedSong.getMelody().getPitch())))
-                .andExpect(jsonPath("$[*].melody.duration").value(hasItem(savedSong.getMelody().getDuration())))
+                .andExpect(jsonPath("$[*].melody.duration").value(hasItem(savedSong.getMelody().getDuration().intValue())))
                 .andExpect(jsonPath("$[*].melody.type").value(hasItem(savedSong.getMelody().getType().toString())));
     }
 
@@ -197,10 +261,10 @@ public class SongResourceIntegrationTest {
                 .andExpect(jsonPath("$.title").value(savedSong.getTitle()))
                 .andExpect(jsonPath("$.description").value(savedSong.getDescription()))
                 .andExpect(jsonPath("$.category").value(savedSong.getCategory().toString()))
-                .andExpect(jsonPath("$.duration").value(savedSong.getDuration()))
+                .andExpect(jsonPath("$.duration").value(savedSong.getDuration().intValue()))
                 .andExpect(jsonPath("$.artistName").value(savedSong.getArtistName()))
                 .andExpect(jsonPath("$.melody.pitch").value(savedSong.getMelody().getPitch()))
-                .andExpect(jsonPath("$.melody.duration").value(savedSong.getMelody().getDuration()))
+                .andExpect(jsonPath("$.melody.duration").value(savedSong.getMelody().getDuration().intValue()))
                 .andExpect(jsonPath("$.melody.type").value(savedSong.getMelody().getType().toString()));
     }
 
@@ -223,10 +287,10 @@ public class SongResourceIntegrationTest {
                 .andExpect(jsonPath("$.title").value(savedSong.getTitle()))
                 .andExpect(jsonPath("$.description").value(savedSong.getDescription()))
                 .andExpect(jsonPath("$.category").value(savedSong.getCategory().toString()))
-                .andExpect(jsonPath("$.duration").value(savedSong.getDuration()))
+                .andExpect(jsonPath("$.duration").value(savedSong.getDuration().intValue()))
                 .andExpect(jsonPath("$.artistName").value(savedSong.getArtistName()))
                 .andExpect(jsonPath("$.melody.pitch").value(savedSong.getMelody().getPitch()))
-                .andExpect(jsonPath("$.melody.duration").value(savedSong.getMelody().getDuration()))
+                .andExpect(jsonPath("$.melody.duration").value(savedSong.getMelody().getDuration().intValue()))
                 .andExpect(jsonPath("$.melody.type").value(savedSong.getMelody().getType().toString()));
     }
 
@@ -269,6 +333,62 @@ public class SongResourceIntegrationTest {
     }
 
 
+    @Test
+    public void testCreateSongsBatch() throws Exception {
+        Song invalidSong = new Song();
+        invalidSong.setTitle("S");
+
+        mockMvc.perform(post("/api/songs/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(asJsonString(Arrays.asList(mySong, invalidSong))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.errors[*].index").value(everyItem(is(1))));
+    }
+
+    @Test
+    public void testCreateSongsBatchFromNdjson() throws Exception {
+        String ndjson = asJsonString(mySong) + "\n" + asJsonString(mySong) + "\n";
+
+        mockMvc.perform(post("/api/songs/batch")
+                .contentType(SongResource.NDJSON_VALUE)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
+    }
+
+    @Test
+    public void testCreateSongsBatchFromInvalidNdjson() throws Exception {
+        mockMvc.perform(post("/api/songs/batch")
+                .contentType(SongResource.NDJSON_VALUE)
+                .accept(MediaType.APPLICATION_JSON)
+                .content("{\"title\": "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(1))
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.errors[0].index").value(0));
+    }
+
+    @Test
+    public void testCreateSongsBatchFromNdjsonKeepsTheLinesBeforeAnInvalidOne() throws Exception {
+        String ndjson = asJsonString(mySong) + "\n{\"title\": \n" + asJsonString(mySong) + "\n";
+
+        mockMvc.perform(post("/api/songs/batch")
+                .contentType(SongResource.NDJSON_VALUE)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].index").value(1));
+    }
+
     @Test
     public void testUpdateSong() throws Exception {
         Song savedSong = songRepository.saveAndFlush(mySong);
@@ -280,6 +400,85 @@ public class SongResourceIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void testUpdateSongWithStaleVersion() throws Exception {
+        Song savedSong = songRepository.saveAndFlush(mySong);
+        savedSong.setTitle("Song updated");
+        mockMvc.perform(put("/api/songs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(savedSong)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("version").value(1));
+
+        // second writer still holds version 0
+        savedSong.setTitle("Song overwritten");
+        mockMvc.perform(put("/api/songs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(savedSong)))
+                .andExpect(status().isConflict());
+
+        assertThat(songService.getSongById(savedSong.getId()).getTitle()).isEqualTo("Song updated");
+    }
+
+    @Test
+    public void testPatchSong() throws Exception {
+        Song savedSong = songRepository.saveAndFlush(mySong);
+        SongPatch patch = new SongPatch();
+        patch.setTitle("Song patched");
+        patch.setVersion(savedSong.getVersion());
+
+        mockMvc.perform(patch("/api/songs/{id}", savedSong.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(patch)))
+                .andExpect(status().isNoContent());
+
+        Song patchedSong = songService.getSongById(savedSong.getId());
+        assertThat(patchedSong.getTitle()).isEqualTo("Song patched");
+        assertThat(patchedSong.getDescription()).isEqualTo(savedSong.getDescription());
+        assertThat(patchedSong.getVersion()).isEqualTo(savedSong.getVersion() + 1);
+    }
+
+    @Test
+    public void testConditionalRequests() throws Exception {
+        Song savedSong = songRepository.saveAndFlush(mySong);
+
+        String eTag = mockMvc.perform(get("/api/songs/{id}", savedSong.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0.0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/songs/{id}", savedSong.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        SongPatch patch = new SongPatch();
+        patch.setTitle("Song patched");
+        mockMvc.perform(patch("/api/songs/{id}", savedSong.getId())
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(patch)))
+                .andExpect(status().isNoContent());
+
+        // the first writer changed the version, a second write with the same ETag is refused
+        mockMvc.perform(patch("/api/songs/{id}", savedSong.getId())
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(patch)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(get("/api/songs/{id}", savedSong.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.0\""));
+    }
+
+    @Test
+    public void testPatchNotFoundSong() throws Exception {
+        mockMvc.perform(patch("/api/songs/1000")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new SongPatch())))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("message").value("Not found song with id = 1000"));
+    }
+
     @Test
     public void testUpdateSongWithTitleSizeLessThanThree() throws Exception {
         Song savedSong = songRepository.saveAndFlush(mySong);
@@ -335,5 +534,51 @@ public class SongResourceIntegrationTest {
                 .andExpect(jsonPath("message").value("Not found song with id = 1000"));
     }
 
+    @Test
+    public void testDeleteSongsByIds() throws Exception {
+        Song firstSong = songRepository.saveAndFlush(mySong);
+        Melody secondMelody = new Melody();
+        secondMelody.setPitch("Second Melody Pitch");
+        secondMelody.setDuration(261_000L);
+        secondMelody.setType(MelodyType.BLENDS);
+        Song secondSong = new Song();
+        secondSong.setTitle("Too Good At Goodbyes");
+        secondSong.setDescription("The Thrill Of It All");
+        secondSong.setCategory(SongCategory.POP);
+        secondSong.setArtistName("Sam Smith");
+        secondSong.setDuration(201_000L);
+        secondSong.setMelody(secondMelody);
+        secondSong = songRepository.saveAndFlush(secondSong);
+
+        mockMvc.perform(delete("/api/songs")
+                .param("ids", firstSong.getId() + "," + secondSong.getId()))
+                .andExpect(status().isNoContent());
+
+        assertThat(songRepository.findById(firstSong.getId())).isEmpty();
+        assertThat(songRepository.findById(secondSong.getId())).isEmpty();
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Number> revisions = AuditReaderFactory.get(entityManager).getRevisions(Song.class, firstSong.getId());
+            assertThat(revisions).hasSize(2);
+            // the songs and melodies removed by the set-based DELETEs share one revision
+            assertThat(AuditReaderFactory.get(entityManager).getRevisions(Melody.class, secondMelody.getId()))
+                    .hasSize(2)
+                    .endsWith(revisions.get(1));
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Test
+    public void testDeleteSongsByIdsWithNotFoundSong() throws Exception {
+        Song savedSong = songRepository.saveAndFlush(mySong);
+
+        mockMvc.perform(delete("/api/songs")
+                .param("ids", savedSong.getId() + ",1000"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("message").value("Not found songs with ids = [1000]"));
 
+        assertThat(songRepository.findById(savedSong.getId())).isPresent();
+    }
 }
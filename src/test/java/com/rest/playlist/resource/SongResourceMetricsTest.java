@@ -0,0 +1,104 @@
+package com.rest.playlist.resource;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@RunWith(SpringRunner.class)
+public class SongResourceMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    private Song savedSong;
+
+    @Before
+    public void setup() {
+        Melody melody = new Melody();
+        melody.setPitch("Metrics pitch");
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.DIRECTION);
+
+        Song song = new Song();
+        song.setTitle("Metrics song");
+        song.setDescription("Metrics description");
+        song.setCategory(SongCategory.CLASSICAL);
+        song.setArtistName("Metrics Artist");
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+        savedSong = songRepository.saveAndFlush(song);
+    }
+
+    @After
+    public void cleanup() {
+        songRepository.delete(savedSong);
+    }
+
+    @Test
+    public void testEndpointTimerIsRecordedPerUriTemplate() throws Exception {
+        mockMvc.perform(get("/api/songs/artist/{artistName}", "Metrics Artist"))
+                .andExpect(status().isOk());
+
+        Timer timer = meterRegistry.find("http.server.requests")
+                .tags("uri", "/api/songs/artist/{artistName}", "method", "GET", "status", "200")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isPositive();
+    }
+
+    @Test
+    public void testRepositoryTimerIsRecordedPerMethod() throws Exception {
+        mockMvc.perform(get("/api/songs/artist/{artistName}", "Metrics Artist"))
+                .andExpect(status().isOk());
+
+        Timer timer = meterRegistry.find("spring.data.repository.invocations")
+                .tags("repository", "SongRepository", "method", "findSongsByArtistName")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isPositive();
+    }
+
+    @Test
+    public void testPrometheusEndpointExposesApplicationMetrics() throws Exception {
+        mockMvc.perform(get("/api/songs/{id}", savedSong.getId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("hibernate_statements_total")))
+                .andExpect(content().string(containsString("hibernate_second_level_cache_requests_total")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("jvm_memory_used_bytes")));
+    }
+}
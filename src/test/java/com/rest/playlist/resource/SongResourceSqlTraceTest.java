@@ -0,0 +1,112 @@
+package com.rest.playlist.resource;
+
+import com.rest.playlist.diagnostics.EndpointSqlStatistics;
+import com.rest.playlist.diagnostics.SqlTraceStatistics;
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class SongResourceSqlTraceTest {
+
+    private static final String ARTIST_ENDPOINT = "GET /api/songs/artist/{artistName}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlTraceStatistics sqlTraceStatistics;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    private Song savedSong;
+
+    @Before
+    public void setup() {
+        Melody melody = new Melody();
+        melody.setPitch("Traced pitch");
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.BLENDS);
+
+        Song song = new Song();
+        song.setTitle("Traced song");
+        song.setDescription("Traced description");
+        song.setCategory(SongCategory.JAZZ);
+        song.setArtistName("Traced Artist");
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+        savedSong = songRepository.saveAndFlush(song);
+        sqlTraceStatistics.reset();
+    }
+
+    @After
+    public void cleanup() {
+        songRepository.delete(savedSong);
+    }
+
+    @Test
+    public void testStatementsAreAggregatedPerEndpoint() throws Exception {
+        mockMvc.perform(get("/api/songs/artist/{artistName}", "Traced Artist"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/songs/artist/{artistName}", "Nobody"))
+                .andExpect(status().isOk());
+
+        EndpointSqlStatistics statistics = sqlTraceStatistics.get(ARTIST_ENDPOINT);
+        assertThat(statistics).isNotNull();
+        assertThat(statistics.getRequests()).isEqualTo(2);
+        assertThat(statistics.getStatements()).isEqualTo(2);
+        assertThat(statistics.getMaxStatements()).isEqualTo(1);
+        assertThat(statistics.getOverBudget()).isZero();
+        assertThat(statistics.getSlowestStatement()).startsWith("select").doesNotContain("Traced Artist");
+    }
+
+    @Test
+    public void testUnknownUrisShareOneEndpoint() throws Exception {
+        mockMvc.perform(get("/api/unknown/1"));
+        mockMvc.perform(get("/api/unknown/2"));
+
+        // the static resources mapping may still match them as "GET /**", never as one key per URI
+        assertThat(sqlTraceStatistics.snapshot()).hasSize(1);
+        assertThat(sqlTraceStatistics.snapshot().keySet()).noneMatch(endpoint -> endpoint.contains("/api/unknown"));
+    }
+
+    @Test
+    public void testAsyncRequestsAreLeftOut() throws Exception {
+        mockMvc.perform(get("/api/songs/changes/stream"))
+                .andExpect(request().asyncStarted());
+
+        assertThat(sqlTraceStatistics.snapshot()).isEmpty();
+    }
+
+    @Test
+    public void testSqlTraceEndpointExposesAggregates() throws Exception {
+        mockMvc.perform(get("/api/songs/artist/{artistName}", "Traced Artist"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/sqltrace"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + ARTIST_ENDPOINT + "'].requests", is(1)))
+                .andExpect(jsonPath("$['" + ARTIST_ENDPOINT + "'].statements", is(1)));
+    }
+}
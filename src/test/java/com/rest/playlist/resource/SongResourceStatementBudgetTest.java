@@ -0,0 +1,163 @@
+package com.rest.playlist.resource;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.mapper.SongMapper;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.ISongBatchService;
+import com.rest.playlist.service.ISongService;
+import com.rest.playlist.web.exception.ServiceExceptionHandler;
+import com.rest.playlist.web.resource.SongResource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * counts the SQL statements prepared by Hibernate for each list endpoint :
+ * the budget is fixed and must hold whatever the number of songs returned.
+ */
+
+@SpringBootTest
+@RunWith(SpringRunner.class)
+public class SongResourceStatementBudgetTest {
+
+    private static final int LIST_STATEMENT_BUDGET = 1;
+    // select, delete songs, delete melodies, revision id, revision, songs and melodies audit rows
+    private static final int BULK_DELETE_STATEMENT_BUDGET = 7;
+    private static final int SONG_COUNT = 20;
+
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ServiceExceptionHandler serviceExceptionHandler;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private ISongService songService;
+
+    @Autowired
+    private ISongBatchService songBatchService;
+
+    @Autowired
+    private SongMapper songMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final List<Song> savedSongs = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        SongResource songResource = new SongResource(songService, songBatchService, songMapper);
+        this.mockMvc = MockMvcBuilders.standaloneSetup(songResource)
+                .setControllerAdvice(serviceExceptionHandler)
+                .build();
+
+        for (int i = 0; i < SONG_COUNT; i++) {
+            Melody melody = new Melody();
+            melody.setPitch("Melody Pitch " + i);
+            melody.setDuration(236_000L);
+            melody.setType(MelodyType.BLENDS);
+
+            Song song = new Song();
+            song.setTitle("Budget song " + i);
+            song.setDescription("Statement budget");
+            song.setCategory(SongCategory.JAZZ);
+            song.setArtistName("Budget Artist");
+            song.setDuration(181_000L);
+            song.setMelody(melody);
+            savedSongs.add(songRepository.saveAndFlush(song));
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @After
+    public void cleanup() {
+        songRepository.deleteAll(savedSongs);
+    }
+
+    @Test
+    public void testGetAllSongsStatementBudget() throws Exception {
+        assertStatementBudget("/api/songs");
+    }
+
+    @Test
+    public void testGetSongsPageStatementBudget() throws Exception {
+        assertStatementBudget("/api/songs?size=" + SONG_COUNT);
+    }
+
+    @Test
+    public void testGetSongsByCategoryStatementBudget() throws Exception {
+        assertStatementBudget("/api/songs/category/JAZZ");
+    }
+
+    @Test
+    public void testGetSongsByArtistStatementBudget() throws Exception {
+        assertStatementBudget("/api/songs/artist/Budget Artist");
+    }
+
+    @Test
+    public void testGetSongsByMelodyTypeStatementBudget() throws Exception {
+        assertStatementBudget("/api/songs/melody/type/BLENDS");
+    }
+
+    @Test
+    public void testGetSongFieldsStatementBudget() throws Exception {
+        assertStatementBudget("/api/songs/category/JAZZ?fields=title,melody.type");
+    }
+
+    @Test
+    public void testDeleteSongsByIdsStatementBudget() throws Exception {
+        String ids = savedSongs.stream()
+                .map(song -> String.valueOf(song.getId()))
+                .collect(Collectors.joining(","));
+        statistics.clear();
+
+        mockMvc.perform(delete("/api/songs").param("ids", ids))
+                .andExpect(status().isNoContent());
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements issued by DELETE /api/songs?ids=")
+                .isLessThanOrEqualTo(BULK_DELETE_STATEMENT_BUDGET);
+        assertThat(songRepository.findSongsByArtistName("Budget Artist")).isEmpty();
+    }
+
+    private void assertStatementBudget(String url) throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get(url)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements issued by GET %s", url)
+                .isLessThanOrEqualTo(LIST_STATEMENT_BUDGET);
+    }
+}
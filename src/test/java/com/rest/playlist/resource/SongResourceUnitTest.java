@@ -1,11 +1,18 @@
 package com.rest.playlist.resource;
 
+import com.rest.playlist.dto.CursorPage;
+import com.rest.playlist.dto.SongPatch;
 import com.rest.playlist.enums.MelodyType;
 import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.web.exception.ResourceConflictException;
 import com.rest.playlist.web.exception.ResourceNotFoundException;
+import com.rest.playlist.mapper.SongMapperImpl;
 import com.rest.playlist.model.Melody;
 import com.rest.playlist.model.Song;
+import com.rest.playlist.dto.BatchResult;
+import com.rest.playlist.service.ISongBatchService;
 import com.rest.playlist.service.ISongService;
+import com.rest.playlist.service.SongServiceImpl;
 import com.rest.playlist.web.resource.SongResource;
 import org.junit.Before;
 import org.junit.Test;
@@ -15,22 +22,32 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static com.rest.playlist.TestUtils.asJsonString;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(controllers = SongResource.class)
+@Import(SongMapperImpl.class)
 public class SongResourceUnitTest {
 
     private static final Logger log = LoggerFactory.getLogger(SongResourceUnitTest.class);
@@ -41,6 +58,9 @@ public class SongResourceUnitTest {
     @MockBean
     private ISongService songService;
 
+    @MockBean
+    private ISongBatchService songBatchService;
+
     private Song mySong;
     private List<Song> songList = new ArrayList<>();
 
@@ -50,7 +70,7 @@ public class SongResourceUnitTest {
         Melody melody = new Melody();
         melody.setId(2000L);
         melody.setPitch("Melody Pitch");
-        melody.setDuration("03:56");
+        melody.setDuration(236_000L);
         melody.setType(MelodyType.COLOR);
 
 
@@ -60,7 +80,7 @@ public class SongResourceUnitTest {
         mySong.setDescription("Live At Abbey Road Studios");
         mySong.setCategory(SongCategory.POP);
         mySong.setArtistName("Sam Smith");
-        mySong.setDuration("3:01");
+        mySong.setDuration(181_000L);
         mySong.setMelody(melody);
     }
 
@@ -77,9 +97,9 @@ public class SongResourceUnitTest {
                 .andExpect(jsonPath("$[*].description").value(songList.get(0).getDescription()))
                 .andExpect(jsonPath("$[*].category").value(songList.get(0).getCategory().toString()))
                 .andExpect(jsonPath("$[*].artistName").value(songList.get(0).getArtistName()))
-                .andExpect(jsonPath("$[*].duration").value(songList.get(0).getDuration()))
+                .andExpect(jsonPath("$[*].duration").value(songList.get(0).getDuration().intValue()))
                 .andExpect(jsonPath("$[*].melody.pitch").value(songList.get(0).getMelody().getPitch()))
-                .andExpect(jsonPath("$[*].melody.duration").value(songList.get(0).getMelody().getDuration()))
+                .andExpect(jsonPath("$[*].melody.duration").value(songList.get(0).getMelody().getDuration().intValue()))
                 .andExpect(jsonPath("$[*].melody.type").value(songList.get(0).getMelody().getType().toString()));
         verify(songService).getAllSongs();
         verify(songService, times(1)).getAllSongs();
@@ -95,6 +115,65 @@ public class SongResourceUnitTest {
                 .andExpect(jsonPath("$", hasSize(0)));
     }
 
+    @Test
+    public void testGetSongsPage() throws Exception {
+        songList.add(mySong);
+        when(songService.getSongsPage(null, 1, null, null)).thenReturn(CursorPage.<Song>builder()
+                .content(songList)
+                .nextCursor(mySong.getId())
+                .build());
+
+        mockMvc.perform(get("/api/songs?size=1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title").value(mySong.getTitle()))
+                .andExpect(header().string(SongResource.NEXT_CURSOR_HEADER, String.valueOf(mySong.getId())))
+                .andExpect(header().string("Link", "<http://localhost/api/songs?size=1&cursor=1000>; rel=\"next\""));
+        verify(songService, never()).getAllSongs();
+    }
+
+    @Test
+    public void testGetLastSongsPage() throws Exception {
+        songList.add(mySong);
+        when(songService.getSongsPage(999L, 10, null, null)).thenReturn(CursorPage.<Song>builder()
+                .content(songList)
+                .build());
+
+        mockMvc.perform(get("/api/songs?cursor=999&size=10")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(SongResource.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void testExportSongs() throws Exception {
+        Song nextSong = new Song();
+        nextSong.setId(1001L);
+        nextSong.setTitle("The Falls");
+        when(songService.getSongsPage(null, SongServiceImpl.MAX_PAGE_SIZE)).thenReturn(CursorPage.<Song>builder()
+                .content(Collections.singletonList(mySong))
+                .nextCursor(mySong.getId())
+                .build());
+        when(songService.getSongsPage(mySong.getId(), SongServiceImpl.MAX_PAGE_SIZE)).thenReturn(CursorPage.<Song>builder()
+                .content(Collections.singletonList(nextSong))
+                .build());
+
+        MvcResult result = mockMvc.perform(get("/api/songs/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SongResource.NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains(mySong.getTitle());
+        assertThat(lines[1]).contains(nextSong.getTitle());
+    }
+
     @Test
     public void testGetSongsByCategory() throws Exception {
         songList.add(mySong);
@@ -108,9 +187,9 @@ public class SongResourceUnitTest {
                 .andExpect(jsonPath("$[*].description").value(songList.get(0).getDescription()))
                 .andExpect(jsonPath("$[*].category").value(songList.get(0).getCategory().toString()))
                 .andExpect(jsonPath("$[*].artistName").value(songList.get(0).getArtistName()))
-                .andExpect(jsonPath("$[*].duration").value(songList.get(0).getDuration()))
+                .andExpect(jsonPath("$[*].duration").value(songList.get(0).getDuration().intValue()))
                 .andExpect(jsonPath("$[*].melody.pitch").value(songList.get(0).getMelody().getPitch()))
-                .andExpect(jsonPath("$[*].melody.duration").value(songList.get(0).getMelody().getDuration()))
+                .andExpect(jsonPath("$[*].melody.duration").value(songList.get(0).getMelody().getDuration().intValue()))
                 .andExpect(jsonPath("$[*].melody.type").value(songList.get(0).getMelody().getType().toString()));
     }
 
@@ -148,9 +227,9 @@ public class SongResourceUnitTest {
                 .andExpect(jsonPath("$[*].description").value(songList.get(0).getDescription()))
                 .andExpect(jsonPath("$[*].category").value(songList.get(0).getCategory().toString()))
                 .andExpect(jsonPath("$[*].artistName").value(songList.get(0).getArtistName()))
-                .andExpect(jsonPath("$[*].duration").value(songList.get(0).getDuration()))
+                .andExpect(jsonPath("$[*].duration").value(songList.get(0).getDuration().intValue()))
                 .andExpect(jsonPath("$[*].melody.pitch").value(songList.get(0).getMelody().getPitch()))
-                .andExpect(jsonPath("$[*].melody.duration").value(songList.get(0).getMelody().getDuration()))
+                .andExpect(jsonPath("$[*].melody.duration").value(songList.get(0).getMelody().getDuration().intValue()))
                 .andExpect(jsonPath("$[*].melody.type").value(songList.get(0).getMelody().getType().toString()));
     }
 
@@ -175,11 +254,11 @@ public class SongResourceUnitTest {
                 .andExpect(jsonPath("$.description").value(mySong.getDescription()))
                 .andExpect(jsonPath("$.category").value(mySong.getCategory().toString()))
                 .andExpect(jsonPath("$.artistName").value(mySong.getArtistName()))
-                .andExpect(jsonPath("$.duration").value(mySong.getDuration()))
+                .andExpect(jsonPath("$.duration").value(mySong.getDuration().intValue()))
                 .andExpect(jsonPath("$.melody.pitch").value(mySong.getMelody().getPitch()))
-                .andExpect(jsonPath("$.melody.duration").value(mySong.getMelody().getDuration()))
+                .andExpect(jsonPath("$.melody.duration").value(mySong.getMelody().getDuration().intValue()))
                 .andExpect(jsonPath("$.melody.pitch").value(mySong.getMelody().getPitch()))
-                .andExpect(jsonPath("$.melody.duration").value(mySong.getMelody().getDuration()))
+                .andExpect(jsonPath("$.melody.duration").value(mySong.getMelody().getDuration().intValue()))
                 .andExpect(jsonPath("$.melody.type").value(mySong.getMelody().getType().toString()));
     }
 
@@ -207,9 +286,9 @@ public class SongResourceUnitTest {
                 .andExpect(jsonPath("$[*].description").value(songList.get(0).getDescription()))
                 .andExpect(jsonPath("$[*].category").value(songList.get(0).getCategory().toString()))
                 .andExpect(jsonPath("$[*].artistName").value(songList.get(0).getArtistName()))
-                .andExpect(jsonPath("$[*].duration").value(songList.get(0).getDuration()))
+                .andExpect(jsonPath("$[*].duration").value(songList.get(0).getDuration().intValue()))
                 .andExpect(jsonPath("$[*].melody.pitch").value(songList.get(0).getMelody().getPitch()))
-                .andExpect(jsonPath("$[*].melody.duration").value(songList.get(0).getMelody().getDuration()))
+                .andExpect(jsonPath("$[*].melody.duration").value(songList.get(0).getMelody().getDuration().intValue()))
                 .andExpect(jsonPath("$[*].melody.type").value(songList.get(0).getMelody().getType().toString()));
     }
 
@@ -246,13 +325,98 @@ public class SongResourceUnitTest {
                 .andExpect(jsonPath("$.description").value(mySong.getDescription()))
                 .andExpect(jsonPath("$.category").value(mySong.getCategory().toString()))
                 .andExpect(jsonPath("$.artistName").value(mySong.getArtistName()))
-                .andExpect(jsonPath("$.duration").value(mySong.getDuration()))
+                .andExpect(jsonPath("$.duration").value(mySong.getDuration().intValue()))
                 .andExpect(jsonPath("$.melody.pitch").value(mySong.getMelody().getPitch()))
-                .andExpect(jsonPath("$.melody.duration").value(mySong.getMelody().getDuration()))
+                .andExpect(jsonPath("$.melody.duration").value(mySong.getMelody().getDuration().intValue()))
                 .andExpect(jsonPath("$.melody.type").value(mySong.getMelody().getType().toString()));
     }
 
 
+    @Test
+    public void testGetSongByIdWithETag() throws Exception {
+        mySong.setVersion(3L);
+        mySong.getMelody().setVersion(1L);
+        when(songService.getSongById(mySong.getId())).thenReturn(mySong);
+
+        mockMvc.perform(get("/api/songs/" + mySong.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3.1\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+
+        mockMvc.perform(get("/api/songs/" + mySong.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3.1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/songs/" + mySong.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2.1\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testGetAllSongsWithETag() throws Exception {
+        mySong.setVersion(3L);
+        songList.add(mySong);
+        when(songService.getAllSongs()).thenReturn(songList);
+
+        String eTag = mockMvc.perform(get("/api/songs"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/songs").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        mySong.setVersion(4L);
+        mockMvc.perform(get("/api/songs").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testUpdateSongWithIfMatch() throws Exception {
+        mySong.setVersion(3L);
+        mySong.getMelody().setVersion(1L);
+        when(songService.getCurrentSong(mySong.getId())).thenReturn(mySong);
+        when(songService.updateSong(any(Song.class))).thenReturn(mySong);
+
+        mockMvc.perform(put("/api/songs")
+                .header(HttpHeaders.IF_MATCH, "\"3.1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(mySong)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3.1\""));
+    }
+
+    @Test
+    public void testUpdateSongWithStaleIfMatch() throws Exception {
+        mySong.setVersion(3L);
+        mySong.getMelody().setVersion(1L);
+        when(songService.getCurrentSong(mySong.getId())).thenReturn(mySong);
+
+        mockMvc.perform(put("/api/songs")
+                .header(HttpHeaders.IF_MATCH, "\"2.1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(mySong)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("message")
+                        .value("Precondition failed for song with id = 1000 : If-Match \"2.1\" does not match ETag \"3.1\""));
+        verify(songService, never()).updateSong(any(Song.class));
+    }
+
+    @Test
+    public void testPatchSongWithStaleIfMatch() throws Exception {
+        mySong.setVersion(3L);
+        mySong.getMelody().setVersion(1L);
+        when(songService.getCurrentSong(mySong.getId())).thenReturn(mySong);
+
+        mockMvc.perform(patch("/api/songs/" + mySong.getId())
+                .header(HttpHeaders.IF_MATCH, "\"2.1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(new SongPatch())))
+                .andExpect(status().isPreconditionFailed());
+        verify(songService, never()).patchSong(anyLong(), any(SongPatch.class));
+    }
+
     @Test
     public void testGetSongByNonExistingId() throws Exception {
         doThrow(new ResourceNotFoundException("Not found Song with id = 1000")).when(songService).getSongById(1000L);
@@ -317,10 +481,29 @@ public class SongResourceUnitTest {
     }
 
 
+    @Test
+    public void testCreateSongsBatch() throws Exception {
+        when(songBatchService.createSongs(any())).thenReturn(BatchResult.builder()
+                .received(2)
+                .created(2)
+                .errors(new ArrayList<>())
+                .build());
+
+        mockMvc.perform(post("/api/songs/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(asJsonString(Arrays.asList(mySong, mySong))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
+        verify(songBatchService, times(1)).createSongs(any());
+    }
+
     @Test
     public void testUpdateSong() throws Exception {
         mySong.setId(1000L);
-        when(songService.updateSong(mySong)).thenReturn(mySong);
+        when(songService.updateSong(any(Song.class))).thenReturn(mySong);
         mockMvc.perform(put("/api/songs")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
@@ -328,6 +511,43 @@ public class SongResourceUnitTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void testUpdateSongWithStaleVersion() throws Exception {
+        mySong.setId(1000L);
+        mySong.setVersion(2L);
+        doThrow(new ResourceConflictException("Conflict song with id = 1000 : version 2 is not the current version 3"))
+                .when(songService).updateSong(any(Song.class));
+        mockMvc.perform(put("/api/songs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(mySong)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("message").value("Conflict song with id = 1000 : version 2 is not the current version 3"));
+    }
+
+    @Test
+    public void testPatchSong() throws Exception {
+        SongPatch patch = new SongPatch();
+        patch.setTitle("Power");
+        mockMvc.perform(patch("/api/songs/1000")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(patch)))
+                .andExpect(status().isNoContent());
+        verify(songService, times(1)).patchSong(eq(1000L), any(SongPatch.class));
+    }
+
+    @Test
+    public void testPatchSongWithTitleSizeLessThanThree() throws Exception {
+        SongPatch patch = new SongPatch();
+        patch.setTitle("S");
+        mockMvc.perform(patch("/api/songs/1000")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(patch)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("fieldErrors[0].message")
+                        .value("Size: titre doit être compris entre 3 et 50 caractères"));
+        verify(songService, never()).patchSong(anyLong(), any(SongPatch.class));
+    }
+
     @Test
     public void testUpdateSongWithTitleSizeLessThanThree() throws Exception {
         mySong.setId(1000L);
@@ -389,5 +609,19 @@ public class SongResourceUnitTest {
                 .andExpect(jsonPath("message").value("Not found Song with id = 1000"));
     }
 
+    @Test
+    public void testDeleteSongsByIds() throws Exception {
+        doNothing().when(songService).deleteSongsByIds(Arrays.asList(1000L, 1001L));
+        mockMvc.perform(delete("/api/songs").param("ids", "1000,1001"))
+                .andExpect(status().isNoContent());
+        verify(songService, times(1)).deleteSongsByIds(Arrays.asList(1000L, 1001L));
+    }
 
+    @Test
+    public void testDeleteSongsByIdsWithNotFoundSong() throws Exception {
+        doThrow(new ResourceNotFoundException("Not found songs with ids = [1001]")).when(songService).deleteSongsByIds(Arrays.asList(1000L, 1001L));
+        mockMvc.perform(delete("/api/songs").param("ids", "1000,1001"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("message").value("Not found songs with ids = [1001]"));
+    }
 }
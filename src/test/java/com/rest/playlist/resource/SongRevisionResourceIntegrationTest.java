@@ -0,0 +1,118 @@
+package com.rest.playlist.resource;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.ISongRevisionService;
+import com.rest.playlist.web.resource.SongRevisionResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * default playlist.audit.mode=sync : the events are the revisions Envers writes when each save commits
+ */
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class SongRevisionResourceIntegrationTest {
+
+    private static final String ARTIST = "Stream Artist";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private ISongRevisionService songRevisionService;
+
+    private long firstRevision;
+    private long secondRevision;
+
+    @Before
+    public void setup() {
+        firstRevision = revisionOf(songRepository.saveAndFlush(newSong("Stream song one")));
+        secondRevision = revisionOf(songRepository.saveAndFlush(newSong("Stream song two")));
+    }
+
+    @After
+    public void cleanup() {
+        songRepository.deleteAll(songRepository.findSongsByArtistName(ARTIST));
+    }
+
+    @Test
+    public void testStreamChangesSendsOneEventPerRevision() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/songs/changes/stream")
+                .param("since", String.valueOf(firstRevision - 1))
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String content = awaitContent(result, "id:" + secondRevision + "\n");
+        assertThat(content).contains("id:" + firstRevision + "\n", "event:change\n", "Stream song one", "Stream song two");
+        assertThat(content.indexOf("id:" + firstRevision + "\n")).isLessThan(content.indexOf("id:" + secondRevision + "\n"));
+    }
+
+    @Test
+    public void testStreamChangesResumesAfterLastEventId() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/songs/changes/stream")
+                .header(SongRevisionResource.LAST_EVENT_ID_HEADER, String.valueOf(firstRevision))
+                .param("since", String.valueOf(firstRevision - 1))
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String content = awaitContent(result, "id:" + secondRevision + "\n");
+        assertThat(content).contains("Stream song two");
+        assertThat(content).doesNotContain("id:" + firstRevision + "\n", "Stream song one");
+    }
+
+    private long revisionOf(Song song) {
+        return songRevisionService.getSongRevisions(song.getId(), null, null).getContent().get(0).getRevision();
+    }
+
+    // the events are written by the feed threads while the request stays open
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
+    private static Song newSong(String title) {
+        Melody melody = new Melody();
+        melody.setPitch("Stream pitch");
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.BLENDS);
+
+        Song song = new Song();
+        song.setTitle(title);
+        song.setDescription("Stream description");
+        song.setCategory(SongCategory.JAZZ);
+        song.setArtistName(ARTIST);
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+        return song;
+    }
+}
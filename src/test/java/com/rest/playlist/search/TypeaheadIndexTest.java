@@ -0,0 +1,141 @@
+package com.rest.playlist.search;
+
+import com.rest.playlist.dto.Suggestion;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.enums.SuggestionType;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongNames;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.event.SongChangedEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TypeaheadIndexTest {
+
+    private TypeaheadIndex typeaheadIndex;
+
+    @Before
+    public void setup() {
+        SongRepository songRepository = mock(SongRepository.class);
+        when(songRepository.findAllProjectedBy()).thenReturn(Collections.emptyList());
+        typeaheadIndex = new TypeaheadIndex(songRepository, 5, 100, 4);
+        typeaheadIndex.rebuild();
+
+        save(1L, "Sam Smith", "For The Lover That I Lost");
+        save(2L, "Sam Smith", "Stay With Me");
+        save(3L, "Samira Saïd", "Youm Wara Youm");
+    }
+
+    @Test
+    public void testSuggestsArtistsThenTitlesStartingWithPrefix() {
+        List<Suggestion> suggestions = typeaheadIndex.suggest("sa", null, 10);
+
+        assertThat(values(suggestions)).containsExactly("Sam Smith", "Samira Saïd");
+        assertThat(suggestions.get(0).getType()).isEqualTo(SuggestionType.ARTIST);
+        assertThat(suggestions.get(0).getSongCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPrefixIgnoresCaseAccentsAndSpaces() {
+        assertThat(values(typeaheadIndex.suggest("  SAMIRA  SAI", SuggestionType.ARTIST, 10))).containsExactly("Samira Saïd");
+        assertThat(values(typeaheadIndex.suggest("stay   with", SuggestionType.TITLE, 10))).containsExactly("Stay With Me");
+    }
+
+    @Test
+    public void testLimitIsApplied() {
+        assertThat(typeaheadIndex.suggest("s", null, 1)).hasSize(1);
+    }
+
+    @Test
+    public void testFollowsUpdatesAndDeletes() {
+        save(2L, "Adele", "Stay With Me");
+        assertThat(typeaheadIndex.suggest("sam smith", SuggestionType.ARTIST, 10).get(0).getSongCount()).isEqualTo(1);
+
+        typeaheadIndex.onSongChanged(SongChangedEvent.deleted(1L));
+        assertThat(typeaheadIndex.suggest("sam smith", SuggestionType.ARTIST, 10)).isEmpty();
+        assertThat(values(typeaheadIndex.suggest("a", SuggestionType.ARTIST, 10))).containsExactly("Adele");
+    }
+
+    @Test
+    public void testNewValuesAreDroppedOnceFull() {
+        // 5 values indexed : 2 artists and 3 titles
+        save(4L, "Adele", "Hello");
+
+        assertThat(typeaheadIndex.size()).isEqualTo(5);
+        assertThat(typeaheadIndex.suggest("adele", null, 10)).isEmpty();
+    }
+
+    @Test
+    public void testNewSongsAreDroppedOnceFull() {
+        // 4 songs indexed, an update of an indexed song still goes through
+        save(4L, "Sam Smith", "Too Good At Goodbyes");
+        save(5L, "Sam Smith", "Lay Me Down");
+        save(4L, "Samira Saïd", "Too Good At Goodbyes");
+
+        assertThat(typeaheadIndex.suggest("sam smith", SuggestionType.ARTIST, 10).get(0).getSongCount()).isEqualTo(2);
+        assertThat(typeaheadIndex.suggest("samira", SuggestionType.ARTIST, 10).get(0).getSongCount()).isEqualTo(2);
+        assertThat(typeaheadIndex.suggest("lay me", SuggestionType.TITLE, 10)).isEmpty();
+    }
+
+    @Test
+    public void testRebuildIndexesEverySongOfAnArtist() {
+        List<SongNames> songs = new ArrayList<>();
+        for (long id = 1000; id > 0; id--) {
+            songs.add(songNames(id, "Prolific Artist", "Title " + (id % 2)));
+        }
+        SongRepository songRepository = mock(SongRepository.class);
+        when(songRepository.findAllProjectedBy()).thenReturn(songs);
+        TypeaheadIndex rebuiltIndex = new TypeaheadIndex(songRepository, 100, 100, 1000);
+        rebuiltIndex.rebuild();
+
+        assertThat(rebuiltIndex.suggest("prolific", SuggestionType.ARTIST, 10).get(0).getSongCount()).isEqualTo(1000);
+        assertThat(rebuiltIndex.suggest("title 1", SuggestionType.TITLE, 10).get(0).getSongCount()).isEqualTo(500);
+
+        for (long id = 1; id < 1000; id++) {
+            rebuiltIndex.onSongChanged(SongChangedEvent.deleted(id));
+        }
+        assertThat(rebuiltIndex.suggest("prolific", SuggestionType.ARTIST, 10).get(0).getSongCount()).isEqualTo(1);
+        assertThat(rebuiltIndex.suggest("title 1", SuggestionType.TITLE, 10)).isEmpty();
+    }
+
+    private void save(Long id, String artistName, String title) {
+        Song song = new Song();
+        song.setId(id);
+        song.setArtistName(artistName);
+        song.setTitle(title);
+        song.setCategory(SongCategory.POP);
+        typeaheadIndex.onSongChanged(SongChangedEvent.saved(song));
+    }
+
+    private static List<String> values(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getValue).collect(Collectors.toList());
+    }
+
+    private static SongNames songNames(Long id, String artistName, String title) {
+        return new SongNames() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public String getArtistName() {
+                return artistName;
+            }
+        };
+    }
+}
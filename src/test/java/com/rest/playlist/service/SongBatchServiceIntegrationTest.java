@@ -0,0 +1,148 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.dto.BatchResult;
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "playlist.batch.chunk-size=100")
+@RunWith(SpringRunner.class)
+public class SongBatchServiceIntegrationTest {
+
+    private static final String ARTIST = "Batch Artist";
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private ISongBatchService songBatchService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @After
+    public void cleanup() {
+        songRepository.deleteAll(songRepository.findSongsByArtistName(ARTIST));
+    }
+
+    @Test
+    public void testCreateSongs() {
+        List<Song> songs = new ArrayList<>();
+        songs.add(newSong(0));
+        Song invalidSong = newSong(1);
+        invalidSong.setTitle(null);
+        invalidSong.getMelody().setPitch("");
+        songs.add(invalidSong);
+        songs.add(newSong(2));
+
+        BatchResult result = songBatchService.createSongs(songs.iterator());
+
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getErrors()).hasSize(3);
+        assertThat(result.getErrors()).allMatch(error -> error.getIndex() == 1);
+        assertThat(result.getErrors()).extracting("field").contains("title", "melody.pitch");
+        assertThat(songRepository.findSongsByArtistName(ARTIST)).hasSize(2);
+    }
+
+    @Test
+    public void testCreateSongsUsesJdbcBatching() {
+        int size = 250;
+        List<Song> songs = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            songs.add(newSong(i));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        BatchResult result = songBatchService.createSongs(songs.iterator());
+
+        assertThat(result.getCreated()).isEqualTo(size);
+        // one statement per song and melody would be 500 inserts plus their audit rows
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(size / 2);
+    }
+
+    @Test
+    public void testCreateSongsReportsAFailedChunk() {
+        List<Song> songs = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            songs.add(newSong(i));
+        }
+        // two songs of the second chunk share a melody : the unique melody_id rejects the whole chunk on flush
+        songs.get(149).setMelody(songs.get(148).getMelody());
+
+        BatchResult result = songBatchService.createSongs(songs.iterator());
+
+        assertThat(result.getReceived()).isEqualTo(150);
+        assertThat(result.getCreated()).isEqualTo(100);
+        assertThat(result.getErrors()).hasSize(50);
+        assertThat(result.getErrors()).extracting("index").containsExactlyElementsOf(
+                IntStream.range(100, 150).boxed().collect(Collectors.toList()));
+        assertThat(songRepository.findSongsByArtistName(ARTIST)).hasSize(100);
+    }
+
+    @Test
+    public void testCreateSongsStopsOnAnUnreadableItem() {
+        List<Song> songs = new ArrayList<>();
+        songs.add(newSong(0));
+        Iterator<Song> source = songs.iterator();
+        Iterator<Song> failingSource = new Iterator<Song>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Song next() {
+                if (source.hasNext()) {
+                    return source.next();
+                }
+                throw new IllegalStateException("Unexpected end-of-input");
+            }
+        };
+
+        BatchResult result = songBatchService.createSongs(failingSource);
+
+        assertThat(result.getReceived()).isEqualTo(2);
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.getErrors().get(0).getIndex()).isEqualTo(1);
+        assertThat(songRepository.findSongsByArtistName(ARTIST)).hasSize(1);
+    }
+
+    private Song newSong(int index) {
+        Melody melody = new Melody();
+        melody.setPitch("Batch pitch " + index);
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.DIRECTION);
+
+        Song song = new Song();
+        song.setTitle("Batch song " + index);
+        song.setDescription("Batch ingestion");
+        song.setCategory(SongCategory.CLASSICAL);
+        song.setArtistName(ARTIST);
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+        return song;
+    }
+}
@@ -0,0 +1,109 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.web.exception.ResourceNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+@SpringBootTest
+@RunWith(SpringRunner.class)
+public class SongCacheIntegrationTest {
+
+    private static final String ARTIST = "Cached Artist";
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private ISongService songService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Song savedSong;
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+        Melody melody = new Melody();
+        melody.setPitch("Cached pitch");
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.COLOR);
+
+        Song song = new Song();
+        song.setTitle("Cached song");
+        song.setDescription("Cached description");
+        song.setCategory(SongCategory.POP);
+        song.setArtistName(ARTIST);
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+        savedSong = songService.createSong(song);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @After
+    public void cleanup() {
+        songRepository.deleteAll(songRepository.findSongsByArtistName(ARTIST));
+    }
+
+    @Test
+    public void testRepeatedReadsDoNotHitTheDatabase() {
+        songService.getSongById(savedSong.getId());
+        songService.getSongsByMelodyId(savedSong.getMelody().getId());
+
+        statistics.clear();
+        Song song = songService.getSongById(savedSong.getId());
+        Song songByMelody = songService.getSongsByMelodyId(savedSong.getMelody().getId());
+
+        assertThat(song.getTitle()).isEqualTo("Cached song");
+        assertThat(songByMelody.getId()).isEqualTo(savedSong.getId());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    public void testUpdateIsVisibleAfterCommit() {
+        songService.getSongById(savedSong.getId());
+
+        Song update = new Song();
+        update.setId(savedSong.getId());
+        update.setTitle("Updated cached song");
+        update.setDescription(savedSong.getDescription());
+        update.setCategory(savedSong.getCategory());
+        update.setArtistName(ARTIST);
+        update.setDuration(savedSong.getDuration());
+        update.setMelody(savedSong.getMelody());
+        songService.updateSong(update);
+
+        assertThat(songService.getSongById(savedSong.getId()).getTitle()).isEqualTo("Updated cached song");
+        assertThat(songService.getSongsByMelodyId(savedSong.getMelody().getId()).getTitle()).isEqualTo("Updated cached song");
+    }
+
+    @Test
+    public void testDeleteIsVisibleAfterCommit() {
+        songService.getSongById(savedSong.getId());
+        songService.getSongsByMelodyId(savedSong.getMelody().getId());
+
+        songService.deleteSongById(savedSong.getId());
+
+        assertThrows(ResourceNotFoundException.class, () -> songService.getSongById(savedSong.getId()));
+        assertThrows(ResourceNotFoundException.class, () -> songService.getSongsByMelodyId(savedSong.getMelody().getId()));
+    }
+}
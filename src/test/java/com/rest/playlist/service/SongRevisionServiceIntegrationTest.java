@@ -0,0 +1,151 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.dto.CatalogChange;
+import com.rest.playlist.dto.CursorPage;
+import com.rest.playlist.dto.MelodyRevision;
+import com.rest.playlist.dto.SongRevision;
+import com.rest.playlist.enums.ChangeType;
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.repository.SongRevisionRepository;
+import com.rest.playlist.web.exception.FormatNotValidException;
+import com.rest.playlist.web.exception.ResourceNotFoundException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * the revisions are written by Envers when each transaction commits, the test methods are not transactional
+ */
+
+@SpringBootTest
+@RunWith(SpringRunner.class)
+public class SongRevisionServiceIntegrationTest {
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private ISongRevisionService songRevisionService;
+
+    @Autowired
+    private SongRevisionRepository songRevisionRepository;
+
+    @Test
+    public void testGetSongRevisionsPageByPage() {
+        Song song = songRepository.saveAndFlush(newSong("Stay With Me"));
+        song.setTitle("Too Good At Goodbyes");
+        song = songRepository.saveAndFlush(song);
+        songRepository.delete(song);
+
+        CursorPage<SongRevision> firstPage = songRevisionService.getSongRevisions(song.getId(), null, 2);
+        assertThat(firstPage.getContent()).extracting(SongRevision::getChangeType)
+                .containsExactly(ChangeType.ADD, ChangeType.MOD);
+        assertThat(firstPage.getContent().get(1).getTitle()).isEqualTo("Too Good At Goodbyes");
+        assertThat(firstPage.getContent().get(1).getMelodyId()).isEqualTo(song.getMelody().getId());
+        assertThat(firstPage.getNextCursor()).isEqualTo(firstPage.getContent().get(1).getRevision());
+
+        CursorPage<SongRevision> lastPage = songRevisionService.getSongRevisions(song.getId(), firstPage.getNextCursor(), 2);
+        assertThat(lastPage.getContent()).extracting(SongRevision::getChangeType).containsExactly(ChangeType.DEL);
+        assertThat(lastPage.getContent().get(0).getTitle()).isNull();
+        assertThat(lastPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void testGetSongRevisionsWithNeverAuditedSong() {
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+                () -> songRevisionService.getSongRevisions(-1L, null, null));
+        assertThat(ex.getMessage()).isEqualTo("Not found revisions for song with id = -1");
+    }
+
+    @Test
+    public void testGetChangesSplitsARevision() {
+        // both songs are saved in the same transaction, hence in the same revision
+        List<Song> songs = songRepository.saveAll(Arrays.asList(newSong("Lay Me Down"), newSong("Writing's On The Wall")));
+        long revision = songRevisionService.getSongRevisions(songs.get(0).getId(), null, null).getContent().get(0).getRevision();
+
+        CursorPage<SongRevision> firstPage = songRevisionService.getChanges(String.valueOf(revision - 1), null, 1);
+        assertThat(firstPage.getContent()).hasSize(1);
+        assertThat(firstPage.getNextCursor()).isEqualTo(revision);
+
+        SongRevision firstChange = firstPage.getContent().get(0);
+        CursorPage<SongRevision> secondPage = songRevisionService.getChanges(String.valueOf(revision), firstChange.getId(), 1);
+        assertThat(secondPage.getContent()).hasSize(1);
+        assertThat(secondPage.getContent().get(0).getRevision()).isEqualTo(revision);
+        assertThat(secondPage.getContent().get(0).getId()).isGreaterThan(firstChange.getId());
+
+        assertThat(songRevisionService.getChanges(String.valueOf(revision), null, 10).getContent())
+                .extracting(SongRevision::getRevision)
+                .allMatch(changeRevision -> changeRevision > revision);
+    }
+
+    @Test
+    public void testGetCatalogChangesGroupsARevision() {
+        List<Song> songs = songRepository.saveAll(Arrays.asList(newSong("Omen"), newSong("Diamonds")));
+        long revision = songRevisionService.getSongRevisions(songs.get(0).getId(), null, null).getContent().get(0).getRevision();
+
+        assertThat(songRevisionService.getLastCommittedRevision()).isGreaterThanOrEqualTo(revision);
+        List<CatalogChange> changes = songRevisionService.getCatalogChanges(revision - 1, 1);
+        assertThat(changes).hasSize(1);
+
+        CatalogChange change = changes.get(0);
+        assertThat(change.getRevision()).isEqualTo(revision);
+        assertThat(change.getRevisionDate()).isNotNull();
+        assertThat(change.getSongs()).extracting(SongRevision::getId)
+                .containsExactlyInAnyOrder(songs.get(0).getId(), songs.get(1).getId());
+        assertThat(change.getMelodies()).extracting(MelodyRevision::getChangeType)
+                .containsExactly(ChangeType.ADD, ChangeType.ADD);
+    }
+
+    @Test
+    public void testGetChangesHidesRevisionsWithinTheCommitLag() {
+        Song song = songRepository.saveAndFlush(newSong("Unholy"));
+        long revision = songRevisionService.getSongRevisions(song.getId(), null, null).getContent().get(0).getRevision();
+
+        ISongRevisionService laggingService = new SongRevisionServiceImpl(songRevisionRepository, 3_600_000L);
+        assertThat(laggingService.getChanges(String.valueOf(revision - 1), null, 10).getContent()).isEmpty();
+        assertThat(laggingService.getCatalogChanges(revision - 1, 10)).isEmpty();
+    }
+
+    @Test
+    public void testGetChangesSinceInstant() {
+        String future = Instant.now().plus(1, ChronoUnit.HOURS).toString();
+        assertThat(songRevisionService.getChanges(future, null, null).getContent()).isEmpty();
+    }
+
+    @Test
+    public void testGetChangesWithInvalidSince() {
+        FormatNotValidException ex = assertThrows(FormatNotValidException.class,
+                () -> songRevisionService.getChanges("yesterday", null, null));
+        assertThat(ex.getMessage()).isEqualTo("since : numéro de révision ou date ISO-8601 attendu = yesterday");
+    }
+
+    private static Song newSong(String title) {
+        Melody melody = new Melody();
+        melody.setPitch("Melody Pitch");
+        melody.setDuration(236_000L);
+        melody.setType(MelodyType.DIRECTION);
+
+        Song song = new Song();
+        song.setTitle(title);
+        song.setDescription("Live At Abbey Road Studios");
+        song.setCategory(SongCategory.POP);
+        song.setArtistName("Sam Smith");
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+        return song;
+    }
+}
@@ -0,0 +1,135 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.dto.SearchPage;
+import com.rest.playlist.dto.SongPatch;
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.web.exception.FormatNotValidException;
+import com.rest.playlist.web.exception.ResourceNotFoundException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * search through the in-memory engine of the test profile, songs are committed so that the index receives the changes
+ */
+
+@SpringBootTest
+@RunWith(SpringRunner.class)
+public class SongSearchServiceIntegrationTest {
+
+    @Autowired
+    private ISongService songService;
+
+    @Autowired
+    private ISongSearchService songSearchService;
+
+    private final List<Song> savedSongs = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        savedSongs.add(songService.createSong(newSong("Zanzibar Nights", "Quiet evening", "Orchestre Zanzibar", SongCategory.JAZZ, MelodyType.COLOR)));
+        savedSongs.add(songService.createSong(newSong("Harbour Lights", "Recorded in Zanzibar", "Marina Quay", SongCategory.POP, MelodyType.BLENDS)));
+        savedSongs.add(songService.createSong(newSong("Zanzibar Sunrise", "Morning session", "Marina Quay", SongCategory.POP, MelodyType.COLOR)));
+    }
+
+    @After
+    public void cleanup() {
+        savedSongs.forEach(song -> songService.deleteSongById(song.getId()));
+        savedSongs.clear();
+    }
+
+    @Test
+    public void testTitleMatchesRankBeforeDescriptionMatches() {
+        SearchPage<Song> page = songSearchService.searchSongs("zanzibar", null, null, null, null);
+
+        assertThat(page.getTotal()).isEqualTo(3);
+        assertThat(titles(page)).containsExactly("Zanzibar Nights", "Zanzibar Sunrise", "Harbour Lights");
+    }
+
+    @Test
+    public void testLastTermMatchesAsPrefix() {
+        SearchPage<Song> page = songSearchService.searchSongs("marina zanzi", null, null, null, null);
+
+        assertThat(titles(page)).containsExactly("Zanzibar Sunrise", "Harbour Lights");
+    }
+
+    @Test
+    public void testFiltersOnCategoryAndMelodyType() {
+        assertThat(titles(songSearchService.searchSongs("zanzibar", "pop", null, null, null)))
+                .containsExactly("Zanzibar Sunrise", "Harbour Lights");
+        assertThat(titles(songSearchService.searchSongs("zanzibar", "pop", "color", null, null)))
+                .containsExactly("Zanzibar Sunrise");
+    }
+
+    @Test
+    public void testPagination() {
+        SearchPage<Song> secondPage = songSearchService.searchSongs("zanzibar", null, null, 1, 2);
+
+        assertThat(secondPage.getTotal()).isEqualTo(3);
+        assertThat(titles(secondPage)).containsExactly("Harbour Lights");
+    }
+
+    @Test
+    public void testIndexFollowsUpdatesAndDeletes() {
+        SongPatch patch = new SongPatch();
+        patch.setTitle("Harbour Dawn");
+        songService.patchSong(savedSongs.get(2).getId(), patch);
+
+        assertThat(titles(songSearchService.searchSongs("dawn", null, "color", null, null))).containsExactly("Harbour Dawn");
+
+        songService.deleteSongById(savedSongs.remove(1).getId());
+        assertThat(titles(songSearchService.searchSongs("harbour", null, null, null, null))).containsExactly("Harbour Dawn");
+    }
+
+    @Test
+    public void testSearchWithoutWordsIsRejected() {
+        assertThrows(FormatNotValidException.class, () -> songSearchService.searchSongs(" -- ", null, null, null, null));
+    }
+
+    @Test
+    public void testSearchPastTheMaximumOffsetIsRejected() {
+        FormatNotValidException ex = assertThrows(FormatNotValidException.class,
+                () -> songSearchService.searchSongs("harbour", null, null, Integer.MAX_VALUE, 100));
+        assertThat(ex.getMessage()).isEqualTo("page * size ne doit pas dépasser " + SongSearchServiceImpl.MAX_SEARCH_OFFSET);
+        assertThat(songSearchService.searchSongs("harbour", null, null, 100, 100).getContent()).isEmpty();
+    }
+
+    @Test
+    public void testSearchWithUnknownCategoryIsRejected() {
+        assertThrows(ResourceNotFoundException.class, () -> songSearchService.searchSongs("zanzibar", "rock", null, null, null));
+    }
+
+    private static List<String> titles(SearchPage<Song> page) {
+        return page.getContent().stream().map(Song::getTitle).collect(Collectors.toList());
+    }
+
+    private static Song newSong(String title, String description, String artistName, SongCategory category, MelodyType type) {
+        Melody melody = new Melody();
+        melody.setPitch("Search pitch");
+        melody.setDuration(236_000L);
+        melody.setType(type);
+
+        Song song = new Song();
+        song.setTitle(title);
+        song.setDescription(description);
+        song.setCategory(category);
+        song.setArtistName(artistName);
+        song.setDuration(181_000L);
+        song.setMelody(melody);
+        return song;
+    }
+}
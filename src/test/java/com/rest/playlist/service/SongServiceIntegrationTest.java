@@ -2,6 +2,7 @@ package com.rest.playlist.service;
 
 import com.rest.playlist.enums.SongCategory;
 import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.web.exception.FormatNotValidException;
 import com.rest.playlist.web.exception.ResourceNotFoundException;
 import com.rest.playlist.model.Melody;
 import com.rest.playlist.model.Song;
@@ -42,7 +43,7 @@ public class SongServiceIntegrationTest {
 
         Melody melody = new Melody();
         melody.setPitch("Melody Pitch");
-        melody.setDuration("03:56");
+        melody.setDuration(236_000L);
         melody.setType(MelodyType.COLOR);
 
         Song mySong = new Song();
@@ -51,7 +52,7 @@ public class SongServiceIntegrationTest {
         mySong.setDescription("Live At Abbey Road Studios");
         mySong.setCategory(SongCategory.POP);
         mySong.setArtistName("Sam Smith");
-        mySong.setDuration("3:01");
+        mySong.setDuration(181_000L);
         mySong.setMelody(melody);
 
         defaultSong = songRepository.saveAndFlush(mySong);
@@ -162,7 +163,7 @@ public class SongServiceIntegrationTest {
         assertThat(updatedSong.getDuration()).isEqualTo(defaultSong.getDuration());
         assertThat(updatedSong.getArtistName()).isEqualTo("Isak Danielson");
         assertThat(updatedSong.getMelody().getPitch()).isEqualTo("Melody Pitch");
-        assertThat(updatedSong.getMelody().getDuration()).isEqualTo("03:56");
+        assertThat(updatedSong.getMelody().getDuration()).isEqualTo(236_000L);
         assertThat(updatedSong.getMelody().getType()).isEqualTo(defaultSong.getMelody().getType());
 
     }
@@ -188,4 +189,25 @@ public class SongServiceIntegrationTest {
 
     }
 
+    @Test
+    public void testGetSongsPageByDuration() {
+        Long cursor = defaultSong.getId() - 1;
+        assertThat(songService.getSongsPage(cursor, 1, "3:00", "PT3M1S").getContent())
+                .extracting(Song::getId)
+                .containsExactly(defaultSong.getId());
+        assertThat(songService.getSongsPage(cursor, 1, "181001", null).getContent())
+                .extracting(Song::getId)
+                .doesNotContain(defaultSong.getId());
+    }
+
+    @Test
+    public void testGetSongsPageWithInvalidDuration() {
+        FormatNotValidException ex = assertThrows(FormatNotValidException.class,
+                () -> songService.getSongsPage(null, null, "trois minutes", null));
+        assertThat(ex.getMessage()).isEqualTo("minDuration : [h:]m:ss, ISO-8601 ou millisecondes attendu = trois minutes");
+
+        ex = assertThrows(FormatNotValidException.class, () -> songService.getSongsPage(null, null, "4:00", "3:00"));
+        assertThat(ex.getMessage()).isEqualTo("minDuration doit être inférieure ou égale à maxDuration");
+    }
+
 }
@@ -1,10 +1,16 @@
 package com.rest.playlist.service;
 
+import com.rest.playlist.audit.AuditedDeletions;
+import com.rest.playlist.dto.CursorPage;
+import com.rest.playlist.dto.SongPatch;
 import com.rest.playlist.enums.SongCategory;
 import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.web.exception.FormatNotValidException;
+import com.rest.playlist.web.exception.ResourceConflictException;
 import com.rest.playlist.web.exception.ResourceNotFoundException;
 import com.rest.playlist.model.Melody;
 import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongMelodyIds;
 import com.rest.playlist.repository.SongRepository;
 import org.junit.Before;
 import org.junit.Test;
@@ -12,11 +18,18 @@ import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,6 +45,11 @@ public class SongServiceUnitTest {
     @MockBean
     private SongRepository songRepository;
 
+    @MockBean
+    private AuditedDeletions auditedDeletions;
+
+    private final ApplicationEventPublisher eventPublisher = event -> { };
+
     private SongServiceImpl songService;
 
     private Song mySong;
@@ -40,11 +58,11 @@ public class SongServiceUnitTest {
 
     @Before
     public void setup() {
-        songService = new SongServiceImpl(songRepository);
+        songService = new SongServiceImpl(songRepository, new NoOpCacheManager(), eventPublisher, auditedDeletions);
 
         Melody myMelody = new Melody();
         myMelody.setPitch("Melody Pitch");
-        myMelody.setDuration("03:56");
+        myMelody.setDuration(236_000L);
         myMelody.setType(MelodyType.COLOR);
 
         mySong = new Song();
@@ -53,7 +71,7 @@ public class SongServiceUnitTest {
         mySong.setDescription("Live At Abbey Road Studios");
         mySong.setCategory(SongCategory.POP);
         mySong.setArtistName("Sam Smith");
-        mySong.setDuration("3:01");
+        mySong.setDuration(181_000L);
         mySong.setMelody(myMelody);
     }
 
@@ -69,6 +87,47 @@ public class SongServiceUnitTest {
         verify(songRepository, times(1)).findAll();
     }
 
+    @Test
+    public void testGetSongsPage() {
+        Song nextSong = new Song();
+        nextSong.setId(1001L);
+        songList.add(mySong);
+        songList.add(nextSong);
+        when(songRepository.findByIdGreaterThanOrderByIdAsc(999L, PageRequest.of(0, 2))).thenReturn(songList);
+
+        //test
+        CursorPage<Song> page = songService.getSongsPage(999L, 1);
+        assertThat(page.getContent()).containsExactly(mySong);
+        assertThat(page.getNextCursor()).isEqualTo(mySong.getId());
+    }
+
+    @Test
+    public void testGetLastSongsPage() {
+        songList.add(mySong);
+        when(songRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, SongServiceImpl.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(songList);
+
+        //test
+        CursorPage<Song> page = songService.getSongsPage(null, null);
+        assertThat(page.getContent()).containsExactly(mySong);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void testGetSongsPageIsCappedToMaxSize() {
+        when(songRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, SongServiceImpl.MAX_PAGE_SIZE + 1)))
+                .thenReturn(songList);
+
+        songService.getSongsPage(null, 10_000);
+        verify(songRepository, times(1))
+                .findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, SongServiceImpl.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test(expected = FormatNotValidException.class)
+    public void testGetSongsPageWithInvalidSize() {
+        songService.getSongsPage(null, 0);
+    }
+
     @Test
     public void testGetSongsByCategory() {
         songList.add(mySong);
@@ -161,9 +220,8 @@ public class SongServiceUnitTest {
         mySong.setDescription("power album");
         mySong.setArtistName("Isak Danielson");
 
-        given(songRepository.saveAndFlush(mySong)).willReturn(mySong);
-
         Song updatedSong = songService.updateSong(mySong);
+        verify(songRepository, never()).saveAndFlush(any(Song.class));
 
         assertThat(updatedSong).isNotNull();
         assertThat(updatedSong).isEqualTo(mySong);
@@ -180,6 +238,42 @@ public class SongServiceUnitTest {
     }
 
 
+    @Test
+    public void testUpdateSongWithStaleVersion() {
+        mySong.setVersion(3L);
+        when(songRepository.findById(mySong.getId())).thenReturn(Optional.of(mySong));
+
+        Song staleSong = new Song();
+        staleSong.setId(mySong.getId());
+        staleSong.setTitle("Power");
+        staleSong.setVersion(2L);
+
+        ResourceConflictException ex = assertThrows(ResourceConflictException.class, () -> songService.updateSong(staleSong));
+
+        assertThat(ex.getMessage()).isEqualTo("Conflict song with id = 1000 : version 2 is not the current version 3");
+        assertThat(mySong.getTitle()).isEqualTo("For The Lover That I Lost");
+    }
+
+    @Test
+    public void testPatchSong() {
+        when(songRepository.findWithoutMelodyById(mySong.getId())).thenReturn(Optional.of(mySong));
+        SongPatch patch = new SongPatch();
+        patch.setTitle("Power");
+
+        songService.patchSong(mySong.getId(), patch);
+
+        assertThat(mySong.getTitle()).isEqualTo("Power");
+        assertThat(mySong.getDescription()).isEqualTo("Live At Abbey Road Studios");
+        assertThat(mySong.getArtistName()).isEqualTo("Sam Smith");
+        verify(songRepository, never()).findById(anyLong());
+    }
+
+    @Test(expected = ResourceNotFoundException.class)
+    public void testPatchSongWithNonExistingId() {
+        when(songRepository.findWithoutMelodyById(4000L)).thenReturn(Optional.empty());
+        songService.patchSong(4000L, new SongPatch());
+    }
+
     @Test(expected = ResourceNotFoundException.class)
     public void testUpdateSongWithNonExistingId() {
         when(songRepository.findById(mySong.getId())).thenReturn(Optional.empty());
@@ -227,14 +321,154 @@ public class SongServiceUnitTest {
 
     @Test
     public void testDeleteSongById() {
-        when(songRepository.findById(mySong.getId())).thenReturn(Optional.of(mySong));
-        songService.deleteSongById(mySong.getId());
-        verify(songRepository, times(1)).deleteById(mySong.getId());
+        when(songRepository.findMelodyIdsByIdIn(anySet())).thenReturn(Collections.singletonList(melodyIds(1000L, 2000L)));
+        when(songRepository.deleteSongsByIdIn(anySet())).thenReturn(1);
+
+        songService.deleteSongById(1000L);
+
+        verify(songRepository, times(1)).deleteSongsByIdIn(Collections.singleton(1000L));
+        verify(songRepository, times(1)).deleteMelodiesByIdIn(Collections.singletonList(2000L));
+        verify(auditedDeletions, times(1)).deleted(Collections.singleton(1000L), Collections.singletonList(2000L));
+        verify(songRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void testDeleteSongsByIds() {
+        List<Long> ids = Arrays.asList(1000L, 1000L, 1001L);
+        when(songRepository.findMelodyIdsByIdIn(anySet()))
+                .thenReturn(Arrays.asList(melodyIds(1000L, 2000L), melodyIds(1001L, 2001L)));
+        when(songRepository.deleteSongsByIdIn(anySet())).thenReturn(2);
+
+        songService.deleteSongsByIds(ids);
+
+        verify(songRepository, times(1)).deleteSongsByIdIn(new LinkedHashSet<>(Arrays.asList(1000L, 1001L)));
+        verify(songRepository, times(1)).deleteMelodiesByIdIn(Arrays.asList(2000L, 2001L));
+        verify(songRepository, never()).findAllById(anySet());
+    }
+
+    @Test
+    public void testDeleteSongsByIdsWithNonExistingId() {
+        List<Long> ids = new ArrayList<>();
+        ids.add(mySong.getId());
+        ids.add(4000L);
+        when(songRepository.findMelodyIdsByIdIn(anySet())).thenReturn(Collections.singletonList(melodyIds(1000L, 2000L)));
+        when(songRepository.deleteSongsByIdIn(anySet())).thenReturn(1);
+
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> songService.deleteSongsByIds(ids));
+
+        assertThat(ex.getMessage()).isEqualTo("Not found songs with ids = [4000]");
+        verify(songRepository, never()).deleteMelodiesByIdIn(anyList());
+        verify(auditedDeletions, never()).deleted(anyCollection(), anyCollection());
+    }
+
+    @Test(expected = FormatNotValidException.class)
+    public void testDeleteSongsByIdsWithEmptyIds() {
+        songService.deleteSongsByIds(new ArrayList<>());
     }
 
     @Test(expected = ResourceNotFoundException.class)
     public void testDeleteSongWithNonExistingId() {
-        when(songRepository.findById(4000L)).thenReturn(Optional.empty());
+        when(songRepository.deleteSongsByIdIn(anySet())).thenReturn(0);
         songService.deleteSongById(4000L);
     }
+
+    @Test
+    public void testGetSongByIdIsServedFromCache() {
+        SongServiceImpl cachedSongService = new SongServiceImpl(songRepository, new ConcurrentMapCacheManager(), eventPublisher, auditedDeletions);
+        when(songRepository.findById(mySong.getId())).thenReturn(Optional.of(mySong));
+
+        assertThat(cachedSongService.getSongById(mySong.getId())).usingRecursiveComparison().isEqualTo(mySong);
+        assertThat(cachedSongService.getSongById(mySong.getId())).usingRecursiveComparison().isEqualTo(mySong);
+        verify(songRepository, times(1)).findById(mySong.getId());
+    }
+
+    @Test
+    public void testCachedSongIsACopy() {
+        SongServiceImpl cachedSongService = new SongServiceImpl(songRepository, new ConcurrentMapCacheManager(), eventPublisher, auditedDeletions);
+        when(songRepository.findById(mySong.getId())).thenReturn(Optional.of(mySong));
+
+        cachedSongService.getSongById(mySong.getId()).setTitle("Changed by a caller");
+        cachedSongService.getSongById(mySong.getId()).getMelody().setPitch("Changed by a caller");
+
+        Song song = cachedSongService.getSongById(mySong.getId());
+        assertThat(song).isNotSameAs(mySong);
+        assertThat(song.getTitle()).isEqualTo("For The Lover That I Lost");
+        assertThat(song.getMelody().getPitch()).isEqualTo(mySong.getMelody().getPitch());
+    }
+
+    @Test
+    public void testGetSongByIdDoesNotCacheARowLoadedBeforeAWrite() {
+        SongServiceImpl cachedSongService = new SongServiceImpl(songRepository, new ConcurrentMapCacheManager(), eventPublisher, auditedDeletions);
+        when(songRepository.findWithoutMelodyById(mySong.getId())).thenReturn(Optional.of(mySong));
+        when(songRepository.findById(mySong.getId())).thenAnswer(invocation -> {
+            // a write commits and evicts between the load of the reader and its put
+            cachedSongService.patchSong(mySong.getId(), new SongPatch());
+            return Optional.of(mySong);
+        });
+
+        cachedSongService.getSongById(mySong.getId());
+        cachedSongService.getSongById(mySong.getId());
+
+        verify(songRepository, times(2)).findById(mySong.getId());
+    }
+
+    @Test
+    public void testGetSongsByMelodyIdIsServedFromCache() {
+        SongServiceImpl cachedSongService = new SongServiceImpl(songRepository, new ConcurrentMapCacheManager(), eventPublisher, auditedDeletions);
+        mySong.getMelody().setId(2000L);
+        when(songRepository.findSongByMelody_Id(2000L)).thenReturn(Optional.of(mySong));
+
+        assertThat(cachedSongService.getSongsByMelodyId(2000L)).usingRecursiveComparison().isEqualTo(mySong);
+        assertThat(cachedSongService.getSongsByMelodyId(2000L)).usingRecursiveComparison().isEqualTo(mySong);
+        assertThat(cachedSongService.getSongById(mySong.getId())).usingRecursiveComparison().isEqualTo(mySong);
+        verify(songRepository, times(1)).findSongByMelody_Id(2000L);
+        verify(songRepository, never()).findById(mySong.getId());
+    }
+
+    @Test
+    public void testUpdateSongEvictsCachedSong() {
+        SongServiceImpl cachedSongService = new SongServiceImpl(songRepository, new ConcurrentMapCacheManager(), eventPublisher, auditedDeletions);
+        mySong.getMelody().setId(2000L);
+        when(songRepository.findById(mySong.getId())).thenReturn(Optional.of(mySong));
+        when(songRepository.findSongByMelody_Id(2000L)).thenReturn(Optional.of(mySong));
+
+        cachedSongService.getSongById(mySong.getId());
+        cachedSongService.getSongsByMelodyId(2000L);
+        cachedSongService.updateSong(mySong);
+        cachedSongService.getSongById(mySong.getId());
+        cachedSongService.getSongsByMelodyId(2000L);
+
+        // one lookup for the first read, one for the update and one after the eviction
+        verify(songRepository, times(3)).findById(mySong.getId());
+        verify(songRepository, times(1)).findSongByMelody_Id(2000L);
+    }
+
+    @Test
+    public void testDeleteSongEvictsCachedSong() {
+        SongServiceImpl cachedSongService = new SongServiceImpl(songRepository, new ConcurrentMapCacheManager(), eventPublisher, auditedDeletions);
+        when(songRepository.findById(mySong.getId())).thenReturn(Optional.of(mySong));
+
+        when(songRepository.findMelodyIdsByIdIn(anySet())).thenReturn(Collections.singletonList(melodyIds(mySong.getId(), 2000L)));
+        when(songRepository.deleteSongsByIdIn(anySet())).thenReturn(1);
+
+        cachedSongService.getSongById(mySong.getId());
+        cachedSongService.deleteSongById(mySong.getId());
+
+        when(songRepository.findById(mySong.getId())).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> cachedSongService.getSongById(mySong.getId()));
+    }
+
+    private static SongMelodyIds melodyIds(Long id, Long melodyId) {
+        return new SongMelodyIds() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getMelodyId() {
+                return melodyId;
+            }
+        };
+    }
 }
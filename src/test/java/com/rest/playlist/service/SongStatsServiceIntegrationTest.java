@@ -0,0 +1,97 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.dto.CatalogStats;
+import com.rest.playlist.dto.GroupStats;
+import com.rest.playlist.enums.MelodyType;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Melody;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.web.exception.FormatNotValidException;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * the songs are created through the service : the statistics snapshot is refreshed by its committed changes
+ */
+
+@SpringBootTest
+@RunWith(SpringRunner.class)
+public class SongStatsServiceIntegrationTest {
+
+    private static final String ARTIST = "Aaa Stats Artist";
+
+    @Autowired
+    private ISongService songService;
+
+    @Autowired
+    private ISongStatsService songStatsService;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    private final List<Song> savedSongs = new ArrayList<>();
+
+    @After
+    public void cleanup() {
+        songRepository.deleteAll(savedSongs);
+    }
+
+    @Test
+    public void testStatsFollowTheWrites() {
+        long songCount = songStatsService.getStats(null).getTotal().getSongCount();
+
+        savedSongs.add(songService.createSong(newSong("Stats song 1", 120_000L)));
+        savedSongs.add(songService.createSong(newSong("Stats song 2", 240_000L)));
+
+        CatalogStats stats = songStatsService.getStats(SongStatsServiceImpl.MAX_ARTISTS);
+        assertThat(stats.getTotal().getSongCount()).isEqualTo(songCount + 2);
+        assertThat(stats.getCategories()).extracting(GroupStats::getKey).contains("CLASSICAL");
+        assertThat(stats.getMelodyTypes()).extracting(GroupStats::getKey).contains("BLENDS");
+
+        Optional<GroupStats> artist = stats.getArtists().stream()
+                .filter(group -> ARTIST.equals(group.getKey()))
+                .findFirst();
+        assertThat(artist).isPresent();
+        assertThat(artist.get().getSongCount()).isEqualTo(2);
+        assertThat(artist.get().getTotalDuration()).isEqualTo(360_000L);
+        assertThat(artist.get().getMinDuration()).isEqualTo(120_000L);
+        assertThat(artist.get().getMaxDuration()).isEqualTo(240_000L);
+        assertThat(artist.get().getAverageDuration()).isEqualTo(180_000L);
+    }
+
+    @Test
+    public void testStatsArtistsLimit() {
+        assertThat(songStatsService.getStats(1).getArtists()).hasSizeLessThanOrEqualTo(1);
+
+        FormatNotValidException ex = assertThrows(FormatNotValidException.class, () -> songStatsService.getStats(0));
+        assertThat(ex.getMessage()).isEqualTo("artists doit être supérieur à 0");
+    }
+
+    private static Song newSong(String title, long duration) {
+        Melody melody = new Melody();
+        melody.setPitch("Melody Pitch");
+        melody.setDuration(duration);
+        melody.setType(MelodyType.BLENDS);
+
+        Song song = new Song();
+        song.setTitle(title);
+        song.setDescription("Statistics");
+        song.setCategory(SongCategory.CLASSICAL);
+        song.setArtistName(ARTIST);
+        song.setDuration(duration);
+        song.setMelody(melody);
+        return song;
+    }
+}